@@ -0,0 +1,230 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.logging.LearnLogger;
+import lombok.Getter;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A reduction of an input alphabet, where every input is mapped to a representative input that behaves identically.
+ *
+ * The reduction is computed by {@link #analyse(SUL, ProblemSUL, Alphabet, Random, int, int, int)}, by sampling
+ * states of the SUL. Because only a sample of states is considered, the reduction may be refuted later on (e.g. by a
+ * {@link ReducedEQOracle}), in which case inputs are split off with {@link #split(Collection)}.
+ */
+public class AlphabetReduction {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(AlphabetReduction.class);
+
+    /**
+     * The full input alphabet.
+     */
+    @Getter
+    private final Alphabet<String> inputs;
+
+    /**
+     * Maps every input to its representative.
+     */
+    private final Map<String, String> representatives;
+
+    /**
+     * The alphabet of representatives (in the order of {@link #inputs}).
+     */
+    @Getter
+    private Alphabet<String> reducedInputs;
+
+    /**
+     * Constructs a new AlphabetReduction.
+     *
+     * @param inputs the full input alphabet.
+     * @param representatives maps every input to its representative.
+     */
+    public AlphabetReduction(Alphabet<String> inputs, Map<String, String> representatives) {
+        this.inputs = inputs;
+        this.representatives = new HashMap(representatives);
+        reducedInputs = computeReducedInputs();
+    }
+
+    private Alphabet<String> computeReducedInputs() {
+        final List<String> result = new ArrayList();
+        for (String input : inputs) {
+            if (getRepresentative(input).equals(input)) result.add(input);
+        }
+        return Alphabets.fromList(result);
+    }
+
+    /**
+     * Returns a copy of this AlphabetReduction, that can be split independently.
+     *
+     * @return the copy.
+     */
+    public AlphabetReduction copy() {
+        return new AlphabetReduction(inputs, representatives);
+    }
+
+    /**
+     * Returns the representative of an input.
+     *
+     * @param input the input.
+     *
+     * @return the representative.
+     */
+    public String getRepresentative(String input) {
+        final String representative = representatives.get(input);
+        return representative != null ? representative : input;
+    }
+
+    /**
+     * Maps every input of a word to its representative.
+     *
+     * @param word the word.
+     *
+     * @return the word over {@link #reducedInputs}.
+     */
+    public Word<String> abstractWord(Word<String> word) {
+        return word.transform(this::getRepresentative);
+    }
+
+    /**
+     * Splits the given inputs off their classes, i.e. every given input becomes its own representative.
+     *
+     * @param split the inputs to split.
+     *
+     * @return whether the reduction changed.
+     */
+    public boolean split(Collection<String> split) {
+        boolean changed = false;
+        for (String input : split) changed |= representatives.remove(input) != null;
+        if (changed) {
+            reducedInputs = computeReducedInputs();
+            LOGGER.info(String.format("split %s, reduced alphabet size is now %d", split, reducedInputs.size()));
+        }
+        return changed;
+    }
+
+    /**
+     * Computes an AlphabetReduction, by sampling states of the SUL.
+     *
+     * First a number of prefixes is computed, by random walks that avoid invalid inputs. Then for every prefix and
+     * every input, the input is applied after the prefix, followed by a number of random suffixes. Two inputs are
+     * considered to behave identically when they produce the same outputs (and the same invalid input behavior) for
+     * every prefix and suffix. Inputs that are invalid after every prefix, end up in the same class.
+     *
+     * @param sul the SUL to sample, this steps the problemSUL (e.g. through counters), such that the symbols and
+     *            resets of the analysis are counted.
+     * @param problemSUL the ProblemSUL stepped by the SUL, to detect invalid inputs.
+     * @param inputs the full input alphabet.
+     * @param random the random number generator.
+     * @param numPrefixes the number of prefixes (the empty prefix is always included).
+     * @param maxLength the maximum length of a prefix and of a suffix.
+     * @param numSuffixes the number of suffixes (the empty suffix is always included).
+     *
+     * @return the AlphabetReduction.
+     */
+    public static AlphabetReduction analyse(SUL<String, String> sul,
+                                            ProblemSUL problemSUL,
+                                            Alphabet<String> inputs,
+                                            Random random,
+                                            int numPrefixes,
+                                            int maxLength,
+                                            int numSuffixes) {
+        final long symbols = problemSUL.getBudget().getSymbols().get();
+
+        final List<Word<String>> prefixes = new ArrayList();
+        prefixes.add(Word.epsilon());
+        for (int i = 1; i < numPrefixes; i++) {
+            prefixes.add(randomValidWord(sul, problemSUL, inputs, random, random.nextInt(maxLength) + 1));
+        }
+
+        final List<Word<String>> suffixes = new ArrayList();
+        suffixes.add(Word.epsilon());
+        for (int i = 1; i < numSuffixes; i++) suffixes.add(randomWord(inputs, random, random.nextInt(maxLength) + 1));
+
+        // the signature of an input; the output of every (prefix, input, suffix) combination.
+        final Map<List<String>, String> classes = new LinkedHashMap();
+        final Map<String, String> representatives = new HashMap();
+        final List<String> invalidInputs = new ArrayList();
+        for (String input : inputs) {
+            final List<String> signature = new ArrayList();
+            boolean alwaysInvalid = true;
+            for (Word<String> prefix : prefixes) {
+                for (Word<String> suffix : suffixes) {
+                    sul.pre();
+                    try {
+                        for (String i : prefix) sul.step(i);
+                        final StringBuilder sb = new StringBuilder(sul.step(input));
+                        final boolean invalid = problemSUL.isInvalid();
+                        alwaysInvalid &= invalid;
+                        sb.append(invalid ? '!' : ' ');
+                        for (String i : suffix) sb.append(sul.step(i)).append(' ');
+                        signature.add(sb.toString());
+                    } finally {
+                        sul.post();
+                    }
+                }
+            }
+
+            String representative = classes.get(signature);
+            if (representative == null) {
+                classes.put(signature, input);
+                representative = input;
+            }
+            representatives.put(input, representative);
+            if (alwaysInvalid) invalidInputs.add(input);
+        }
+
+        final AlphabetReduction result = new AlphabetReduction(inputs, representatives);
+
+        LOGGER.info(String.format("reduced alphabet from %d to %d inputs (%d symbols), invalid inputs: %s",
+                inputs.size(), result.reducedInputs.size(), problemSUL.getBudget().getSymbols().get() - symbols, invalidInputs));
+        for (String input : inputs) {
+            final String representative = result.getRepresentative(input);
+            if (!representative.equals(input)) LOGGER.info(String.format("input %s behaves as %s", input, representative));
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes a random word of the given length, that does not contain invalid inputs.
+     */
+    private static Word<String> randomValidWord(SUL<String, String> sul,
+                                                ProblemSUL problemSUL,
+                                                Alphabet<String> inputs,
+                                                Random random,
+                                                int length) {
+        final List<String> result = new ArrayList();
+        // give up after a bounded number of attempts, e.g. when every input after the current word is invalid.
+        for (int attempts = 0; result.size() < length && attempts < length * inputs.size(); attempts++) {
+            final String input = inputs.getSymbol(random.nextInt(inputs.size()));
+            sul.pre();
+            try {
+                for (String i : result) sul.step(i);
+                sul.step(input);
+                if (!problemSUL.isInvalid()) result.add(input);
+            } finally {
+                sul.post();
+            }
+        }
+        return Word.fromList(result);
+    }
+
+    /**
+     * Computes a random word of the given length.
+     */
+    private static Word<String> randomWord(Alphabet<String> inputs, Random random, int length) {
+        final List<String> result = new ArrayList();
+        for (int i = 0; i < length; i++) result.add(inputs.getSymbol(random.nextInt(inputs.size())));
+        return Word.fromList(result);
+    }
+}
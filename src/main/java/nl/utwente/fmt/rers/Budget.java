@@ -0,0 +1,351 @@
+package nl.utwente.fmt.rers;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A cooperative budget for a RERS experiment.
+ *
+ * The budget is shared by every component that may run for a long time ({@link ProblemSUL}, the
+ * {@link BudgetEQOracle}, and {@link RERSProperty}), and these components call {@link #check()} regularly.
+ * When a budget is exceeded a {@link BudgetExhaustedException} is thrown. There are two kinds of budgets:
+ *
+ *  - global budgets (wall-clock, symbols and resets), these end the experiment,
+ *  - phase budgets (wall-clock, symbols and resets of a single entry of a phase), these only end the current phase.
+ *
+ * The budget of a phase only counts what is spent in the phase itself; when a nested phase is left with
+ * {@link #restorePhase(Phase)}, what the nested phase spent is not counted for the restored phase. The
+ * {@link #LEARNING} phase is entered once for the whole experiment, and exhausting it ends the experiment, because a
+ * learner can not continue without the answers to its queries.
+ *
+ * A Budget can also be cancelled, which ends the experiment like a global budget. Concurrent experiments use
+ * {@link #fork()}ed Budgets; these share the global budgets and the cancellation, but have their own phase.
+ */
+public class Budget {
+
+    public static final String LEARNING = "learning";
+
+    public static final String EQUIVALENCE = "equivalence";
+
+    public static final String PROPERTY = "property";
+
+    /**
+     * An entry of a phase, with its limits in terms of {@link System#nanoTime()} and the phase counters of a Budget.
+     */
+    public static class Phase {
+
+        @Getter
+        private final String name;
+
+        private final long deadline;
+
+        private final long maxSymbols;
+
+        private final long maxResets;
+
+        Phase(String name, long deadline, long maxSymbols, long maxResets) {
+            this.name = name;
+            this.deadline = deadline;
+            this.maxSymbols = maxSymbols;
+            this.maxResets = maxResets;
+        }
+
+        /**
+         * Returns this phase with its limits extended by the given amounts, the limits that are unlimited remain so.
+         */
+        Phase extend(long nanos, long symbols, long resets) {
+            return new Phase(name,
+                    deadline != Long.MAX_VALUE ? deadline + nanos : deadline,
+                    maxSymbols != Long.MAX_VALUE ? maxSymbols + symbols : maxSymbols,
+                    maxResets != Long.MAX_VALUE ? maxResets + resets : maxResets);
+        }
+    }
+
+    /**
+     * The deadline of the whole experiment (in terms of {@link System#nanoTime()}).
+     */
+    private final long deadline;
+
+    /**
+     * The maximum number of symbols that may be applied to the SUL.
+     */
+    private final long maxSymbols;
+
+    /**
+     * The maximum number of resets that may be applied to the SUL.
+     */
+    private final long maxResets;
+
+    @Getter
+    private final AtomicLong symbols;
+
+    @Getter
+    private final AtomicLong resets;
+
+    /**
+     * The symbols and resets of this Budget only (i.e. not of its forks), that are counted for its phases.
+     */
+    private final AtomicLong phaseSymbols = new AtomicLong();
+    private final AtomicLong phaseResets = new AtomicLong();
+
+    /**
+     * The reason of cancellation, or null if not cancelled.
+     */
+    private final AtomicReference<String> cancelled;
+
+    /**
+     * The timeouts (in seconds), and the maximum number of symbols and resets of every single entry of a phase.
+     */
+    private final Map<String, Long> phaseTimeouts = new HashMap();
+    private final Map<String, Long> phaseSymbolLimits = new HashMap();
+    private final Map<String, Long> phaseResetLimits = new HashMap();
+
+    /**
+     * The current phase, initially {@link #LEARNING} without limits.
+     */
+    private volatile Phase phase = new Phase(LEARNING, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The start of the current phase (in terms of {@link System#nanoTime()}, and the phase counters).
+     */
+    private long phaseStart = System.nanoTime();
+    private long phaseStartSymbols = 0;
+    private long phaseStartResets = 0;
+
+    /**
+     * Constructs a Budget without any limits.
+     */
+    public Budget() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Constructs a new Budget. A value of at most zero means unlimited.
+     *
+     * @param seconds the wall-clock budget of the whole experiment.
+     * @param maxSymbols the maximum number of symbols.
+     * @param maxResets the maximum number of resets.
+     */
+    public Budget(long seconds, long maxSymbols, long maxResets) {
+        this.deadline = seconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds) : Long.MAX_VALUE;
+        this.maxSymbols = maxSymbols > 0 ? maxSymbols : Long.MAX_VALUE;
+        this.maxResets = maxResets > 0 ? maxResets : Long.MAX_VALUE;
+        symbols = new AtomicLong();
+        resets = new AtomicLong();
+        cancelled = new AtomicReference();
+    }
+
+    private Budget(Budget parent) {
+        deadline = parent.deadline;
+        maxSymbols = parent.maxSymbols;
+        maxResets = parent.maxResets;
+        symbols = parent.symbols;
+        resets = parent.resets;
+        cancelled = parent.cancelled;
+        synchronized (parent) {
+            phaseTimeouts.putAll(parent.phaseTimeouts);
+            phaseSymbolLimits.putAll(parent.phaseSymbolLimits);
+            phaseResetLimits.putAll(parent.phaseResetLimits);
+        }
+    }
+
+    /**
+     * Forks this Budget. The fork shares the global budgets and the cancellation, and starts with the same phase
+     * limits, but has its own phase.
+     *
+     * @return the forked Budget.
+     */
+    public Budget fork() {
+        return new Budget(this);
+    }
+
+    /**
+     * Cancels this Budget (and all its forks), i.e. every subsequent check throws a BudgetExhaustedException.
+     *
+     * @param reason the reason of cancellation.
+     */
+    public void cancel(String reason) {
+        cancelled.compareAndSet(null, reason);
+    }
+
+    /**
+     * Returns whether this Budget is cancelled.
+     *
+     * @return whether this Budget is cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled.get() != null;
+    }
+
+    /**
+     * Sets the wall-clock budget of a single entry of the given phase. A value of at most zero means unlimited.
+     *
+     * @param phase the phase.
+     * @param seconds the number of seconds.
+     */
+    public synchronized void setPhaseTimeout(String phase, long seconds) {
+        setLimit(phaseTimeouts, phase, seconds);
+    }
+
+    /**
+     * Returns the wall-clock budget of a single entry of the given phase.
+     *
+     * @param phase the phase.
+     *
+     * @return the number of seconds, or zero if unlimited.
+     */
+    public synchronized long getPhaseTimeout(String phase) {
+        return phaseTimeouts.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Sets the maximum number of symbols of a single entry of the given phase. A value of at most zero means
+     * unlimited.
+     *
+     * @param phase the phase.
+     * @param symbols the number of symbols.
+     */
+    public synchronized void setPhaseSymbolLimit(String phase, long symbols) {
+        setLimit(phaseSymbolLimits, phase, symbols);
+    }
+
+    /**
+     * Sets the maximum number of resets of a single entry of the given phase. A value of at most zero means
+     * unlimited.
+     *
+     * @param phase the phase.
+     * @param resets the number of resets.
+     */
+    public synchronized void setPhaseResetLimit(String phase, long resets) {
+        setLimit(phaseResetLimits, phase, resets);
+    }
+
+    private static void setLimit(Map<String, Long> limits, String phase, long limit) {
+        if (limit > 0) limits.put(phase, limit);
+        else limits.remove(phase);
+    }
+
+    /**
+     * Returns the name of the current phase.
+     *
+     * @return the name of the current phase.
+     */
+    public String getPhase() {
+        return phase.getName();
+    }
+
+    /**
+     * Enters the given phase, and starts its budgets, counted from now.
+     *
+     * @param name the phase to enter.
+     *
+     * @return the phase that was active before, such that it can be restored with {@link #restorePhase(Phase)}.
+     */
+    public synchronized Phase enterPhase(String name) {
+        final Phase previous = this.phase;
+        final long now = System.nanoTime();
+        final Long seconds = phaseTimeouts.get(name);
+        final Long maxSymbols = phaseSymbolLimits.get(name);
+        final Long maxResets = phaseResetLimits.get(name);
+
+        phaseStart = now;
+        phaseStartSymbols = phaseSymbols.get();
+        phaseStartResets = phaseResets.get();
+        phase = new Phase(name,
+                seconds != null ? now + TimeUnit.SECONDS.toNanos(seconds) : Long.MAX_VALUE,
+                maxSymbols != null ? phaseStartSymbols + maxSymbols : Long.MAX_VALUE,
+                maxResets != null ? phaseStartResets + maxResets : Long.MAX_VALUE);
+        return previous;
+    }
+
+    /**
+     * Restores a phase that was active before {@link #enterPhase(String)}. The phase does not get new budgets,
+     * because its previous entry is not considered to be finished, but what is spent since it was left is not
+     * counted for it.
+     *
+     * @param previous the phase to restore.
+     */
+    public synchronized void restorePhase(Phase previous) {
+        final long now = System.nanoTime();
+        final long symbols = phaseSymbols.get();
+        final long resets = phaseResets.get();
+
+        phase = previous.extend(now - phaseStart, symbols - phaseStartSymbols, resets - phaseStartResets);
+        phaseStart = now;
+        phaseStartSymbols = symbols;
+        phaseStartResets = resets;
+    }
+
+    /**
+     * Counts a symbol, and checks the budget.
+     *
+     * @throws BudgetExhaustedException when the budget is exhausted.
+     */
+    public void countSymbol() throws BudgetExhaustedException {
+        if (symbols.incrementAndGet() > maxSymbols) {
+            throw new BudgetExhaustedException(getPhase(), true, "symbol budget of " + maxSymbols + " exhausted");
+        }
+        final Phase phase = this.phase;
+        if (phaseSymbols.incrementAndGet() > phase.maxSymbols) throw phaseExhausted(phase, "symbol budget");
+        check();
+    }
+
+    /**
+     * Counts a reset, and checks the budget.
+     *
+     * @throws BudgetExhaustedException when the budget is exhausted.
+     */
+    public void countReset() throws BudgetExhaustedException {
+        if (resets.incrementAndGet() > maxResets) {
+            throw new BudgetExhaustedException(getPhase(), true, "reset budget of " + maxResets + " exhausted");
+        }
+        final Phase phase = this.phase;
+        if (phaseResets.incrementAndGet() > phase.maxResets) throw phaseExhausted(phase, "reset budget");
+        check();
+    }
+
+    /**
+     * Checks the cancellation and the wall-clock budgets.
+     *
+     * @throws BudgetExhaustedException when the budget is exhausted.
+     */
+    public void check() throws BudgetExhaustedException {
+        final Phase phase = this.phase;
+        final String reason = cancelled.get();
+        if (reason != null) throw new BudgetExhaustedException(phase.getName(), true, reason);
+
+        final long now = System.nanoTime();
+        if (deadline != Long.MAX_VALUE && now - deadline > 0) {
+            throw new BudgetExhaustedException(phase.getName(), true, "time budget exhausted");
+        }
+        if (phase.deadline != Long.MAX_VALUE && now - phase.deadline > 0) throw phaseExhausted(phase, "time budget");
+    }
+
+    /**
+     * Returns the exception for an exhausted budget of the given phase, which is global for {@link #LEARNING}.
+     */
+    private static BudgetExhaustedException phaseExhausted(Phase phase, String budget) {
+        return new BudgetExhaustedException(phase.getName(), LEARNING.equals(phase.getName()),
+                budget + " of phase " + phase.getName() + " exhausted");
+    }
+
+    /**
+     * Finds a BudgetExhaustedException in the causes of the given Throwable. This is necessary because
+     * BudgetExhaustedExceptions may be wrapped, e.g. when thrown by a thread of a parallel oracle.
+     *
+     * @param t the Throwable.
+     *
+     * @return the BudgetExhaustedException, or null if there is none.
+     */
+    public static BudgetExhaustedException findExhaustion(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof BudgetExhaustedException) return (BudgetExhaustedException) c;
+        }
+        return null;
+    }
+}
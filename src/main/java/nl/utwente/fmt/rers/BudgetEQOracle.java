@@ -0,0 +1,60 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.logging.LearnLogger;
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.query.DefaultQuery;
+import lombok.Getter;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Word;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collection;
+
+/**
+ * Runs an equivalence oracle in the {@link Budget#EQUIVALENCE} phase of a {@link Budget}.
+ *
+ * When the budget of the phase is exhausted, the search for a counterexample is stopped and no counterexample is
+ * returned, such that the current hypothesis is used to (dis)prove properties.
+ */
+@ParametersAreNonnullByDefault
+public class BudgetEQOracle implements MealyEquivalenceOracle<String, String> {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(BudgetEQOracle.class);
+
+    private final MealyEquivalenceOracle<String, String> equivalenceOracle;
+
+    private final Budget budget;
+
+    /**
+     * Whether the last search for a counterexample was stopped by the budget of the phase. In that case no
+     * counterexample is returned, even though the hypothesis did not pass all tests.
+     */
+    @Getter
+    private volatile boolean exhausted = false;
+
+    public BudgetEQOracle(MealyEquivalenceOracle<String, String> equivalenceOracle, Budget budget) {
+        this.equivalenceOracle = equivalenceOracle;
+        this.budget = budget;
+    }
+
+    @Nullable
+    @Override
+    public DefaultQuery<String, Word<String>> findCounterExample(MealyMachine<?, String, ?, String> hypothesis,
+                                                                Collection<? extends String> inputs) {
+        final Budget.Phase previous = budget.enterPhase(Budget.EQUIVALENCE);
+        exhausted = false;
+        try {
+            budget.check();
+            return equivalenceOracle.findCounterExample(hypothesis, inputs);
+        } catch (RuntimeException re) {
+            final BudgetExhaustedException bee = Budget.findExhaustion(re);
+            if (bee == null || bee.isGlobal()) throw re;
+            exhausted = true;
+            LOGGER.info(bee.getMessage() + ", not using counter example");
+            return null;
+        } finally {
+            budget.restorePhase(previous);
+        }
+    }
+}
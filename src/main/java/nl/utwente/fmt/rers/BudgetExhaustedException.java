@@ -0,0 +1,27 @@
+package nl.utwente.fmt.rers;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a {@link Budget} is exhausted.
+ */
+public class BudgetExhaustedException extends RuntimeException {
+
+    /**
+     * The phase that was active when the budget was exhausted.
+     */
+    @Getter
+    private final String phase;
+
+    /**
+     * Whether the whole experiment has to stop, or only the current phase.
+     */
+    @Getter
+    private final boolean global;
+
+    public BudgetExhaustedException(String phase, boolean global, String message) {
+        super(message);
+        this.phase = phase;
+        this.global = global;
+    }
+}
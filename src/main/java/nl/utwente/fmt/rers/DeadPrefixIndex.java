@@ -0,0 +1,91 @@
+package nl.utwente.fmt.rers;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A thread-safe trie of prefixes that lead to a sink, i.e. a prefix that ends with an invalid input or an error.
+ *
+ * Every node stores the output of the last input of its prefix, such that a {@link ProblemSUL} can answer a query
+ * that follows the trie without stepping its {@link nl.utwente.fmt.rers.problems.seq.Problem}. Every extension of a
+ * dead prefix produces the empty output.
+ */
+public class DeadPrefixIndex {
+
+    /**
+     * A node in the trie.
+     */
+    public static class Node extends OutputTrie.Node<Node> {
+
+        /**
+         * Whether the prefix leads to a sink.
+         */
+        @Getter
+        private volatile boolean dead = false;
+
+        /**
+         * Whether the sink is caused by an invalid input (instead of an error).
+         */
+        @Getter
+        private volatile boolean invalid = false;
+
+        private Node(String output) {
+            super(output);
+        }
+    }
+
+    private final OutputTrie<Node> trie;
+
+    /**
+     * Constructs a new DeadPrefixIndex, with at most 2^20 nodes.
+     */
+    public DeadPrefixIndex() {
+        this(1 << 20);
+    }
+
+    /**
+     * Constructs a new DeadPrefixIndex.
+     *
+     * @param maxNodes the maximum number of nodes, after which no more dead prefixes are added.
+     */
+    public DeadPrefixIndex(int maxNodes) {
+        trie = new OutputTrie<>(Node::new, maxNodes);
+    }
+
+    /**
+     * Returns the root of the trie, i.e. the empty prefix.
+     *
+     * @return the root.
+     */
+    public Node getRoot() {
+        return trie.getRoot();
+    }
+
+    /**
+     * Adds a dead prefix.
+     *
+     * @param inputs the inputs of the prefix.
+     * @param outputs the outputs of the prefix.
+     * @param invalid whether the last input of the prefix is invalid (instead of triggering an error).
+     */
+    public void add(List<String> inputs, List<String> outputs, boolean invalid) {
+        Node node = trie.getRoot();
+        for (int i = 0; i < inputs.size(); i++) {
+            if (node.dead) return;
+            node = trie.addChild(node, inputs.get(i), outputs.get(i));
+            if (node == null) return;
+        }
+        node.invalid = invalid;
+        node.dead = true;
+    }
+
+    /**
+     * Returns the number of nodes in the trie.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return trie.size();
+    }
+}
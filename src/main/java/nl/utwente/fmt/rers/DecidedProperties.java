@@ -0,0 +1,71 @@
+package nl.utwente.fmt.rers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The properties that are decided, and the learner that decided each of them.
+ *
+ * This is shared by the {@link RERSProperty}s of concurrent experiments, such that a property is reported only by
+ * the first learner that decides it.
+ */
+public class DecidedProperties {
+
+    /**
+     * Maps a property number to the learner that decided it.
+     */
+    private final Map<Integer, String> winners = new ConcurrentHashMap();
+
+    /**
+     * The number of properties.
+     */
+    private final int total;
+
+    /**
+     * Runs once all properties are decided.
+     */
+    private final Runnable allDecided;
+
+    /**
+     * Constructs a new DecidedProperties, for a single experiment.
+     */
+    public DecidedProperties() {
+        this(-1, () -> {});
+    }
+
+    /**
+     * Constructs a new DecidedProperties.
+     *
+     * @param total the number of properties.
+     * @param allDecided runs once all properties are decided.
+     */
+    public DecidedProperties(int total, Runnable allDecided) {
+        this.total = total;
+        this.allDecided = allDecided;
+    }
+
+    /**
+     * Decides a property.
+     *
+     * @param propertyNumber the property number.
+     * @param learner the learner that decided the property.
+     *
+     * @return whether the learner is the first to decide the property.
+     */
+    public boolean decide(int propertyNumber, String learner) {
+        final boolean first = winners.putIfAbsent(propertyNumber, learner) == null;
+        if (first && winners.size() == total) allDecided.run();
+        return first;
+    }
+
+    /**
+     * Returns the learner that decided a property.
+     *
+     * @param propertyNumber the property number.
+     *
+     * @return the learner, or null if the property is not decided.
+     */
+    public String getWinner(int propertyNumber) {
+        return winners.get(propertyNumber);
+    }
+}
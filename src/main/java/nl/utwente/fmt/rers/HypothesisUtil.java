@@ -0,0 +1,72 @@
+package nl.utwente.fmt.rers;
+
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.words.Word;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Utilities for the hypotheses of equivalence oracles.
+ */
+public final class HypothesisUtil {
+
+    private HypothesisUtil() {
+    }
+
+    /**
+     * Computes the breadth-first access sequences of a hypothesis (in the order of the inputs).
+     *
+     * @param hypothesis the hypothesis.
+     * @param inputs the inputs.
+     *
+     * @return the access sequence of every reachable state, in breadth-first order.
+     */
+    public static <S> Map<S, Word<String>> accessSequences(MealyMachine<S, String, ?, String> hypothesis,
+                                                           Collection<? extends String> inputs) {
+        final Map<S, Word<String>> result = new LinkedHashMap();
+        final Queue<S> queue = new ArrayDeque();
+
+        final S init = hypothesis.getInitialState();
+        if (init == null) return result;
+        result.put(init, Word.epsilon());
+        queue.add(init);
+
+        while (!queue.isEmpty()) {
+            final S state = queue.remove();
+            for (String input : inputs) {
+                final S succ = hypothesis.getSuccessor(state, input);
+                if (succ != null && !result.containsKey(succ)) {
+                    result.put(succ, result.get(state).append(input));
+                    queue.add(succ);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the characterizing set of a state of a hypothesis, which contains at least the empty word.
+     *
+     * @param hypothesis the hypothesis.
+     * @param inputs the inputs.
+     * @param state the state.
+     *
+     * @return the characterizing set.
+     */
+    public static <S> List<Word<String>> stateCharacterizingSet(MealyMachine<S, String, ?, String> hypothesis,
+                                                                Collection<? extends String> inputs,
+                                                                S state) {
+        final List<Word<String>> result = new ArrayList();
+        Automata.stateCharacterizingSet(hypothesis, inputs, state, result);
+        if (result.isEmpty()) result.add(Word.epsilon());
+        return result;
+    }
+}
@@ -0,0 +1,220 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.logging.LearnLogger;
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Word;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An equivalence oracle that only poses the tests of a hypothesis that have not passed before.
+ *
+ * The test suite is the one of the Wp-method: for every state, its (breadth-first) access sequence and its
+ * characterizing set, and for every transition, the access sequence of its source state, its input, a middle part
+ * of at most {@link #depth} inputs, and the characterizing set of the state reached. The output of the SUL for every
+ * test that is posed is remembered. A test is only posed when it has not been posed before; when it has been posed,
+ * it passes if the hypothesis still predicts the remembered output, and is a counterexample otherwise. Hence, this is
+ * as complete as the Wp-method, while the number of symbols per round scales with the size of a refinement, instead
+ * of with the size of the hypothesis. The tests are still generated (without posing them) for the whole hypothesis.
+ *
+ * The number of remembered outputs is bounded, once the bound is reached new tests are posed every round.
+ */
+@ParametersAreNonnullByDefault
+public class IncrementalWpEQOracle implements MealyEquivalenceOracle<String, String> {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(IncrementalWpEQOracle.class);
+
+    private final MembershipOracle<String, Word<String>> membershipOracle;
+
+    /**
+     * The maximum length of the middle part of a test.
+     */
+    private final int depth;
+
+    /**
+     * The number of tests that are posed to the {@link #membershipOracle} at once.
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum number of tests in {@link #posedTests}.
+     */
+    private final int maxPosedTests;
+
+    /**
+     * Maps the tests that are posed to the output of the SUL.
+     */
+    private final Map<Word<String>, Word<String>> posedTests = new HashMap();
+
+    /**
+     * Constructs a new IncrementalWpEQOracle, that remembers at most 2^20 tests.
+     *
+     * @param membershipOracle the oracle to pose the tests.
+     * @param depth the maximum length of the middle part of a test.
+     * @param batchSize the number of tests that are posed at once.
+     */
+    public IncrementalWpEQOracle(MembershipOracle<String, Word<String>> membershipOracle, int depth, int batchSize) {
+        this(membershipOracle, depth, batchSize, 1 << 20);
+    }
+
+    /**
+     * Constructs a new IncrementalWpEQOracle.
+     *
+     * @param membershipOracle the oracle to pose the tests.
+     * @param depth the maximum length of the middle part of a test.
+     * @param batchSize the number of tests that are posed at once.
+     * @param maxPosedTests the maximum number of tests to remember.
+     */
+    public IncrementalWpEQOracle(MembershipOracle<String, Word<String>> membershipOracle,
+                                 int depth,
+                                 int batchSize,
+                                 int maxPosedTests) {
+        this.membershipOracle = membershipOracle;
+        this.depth = depth;
+        this.batchSize = batchSize;
+        this.maxPosedTests = maxPosedTests;
+    }
+
+    @Nullable
+    @Override
+    public DefaultQuery<String, Word<String>> findCounterExample(MealyMachine<?, String, ?, String> hypothesis,
+                                                                Collection<? extends String> inputs) {
+        return doFindCounterExample(hypothesis, inputs);
+    }
+
+    private <S> DefaultQuery<String, Word<String>> doFindCounterExample(MealyMachine<S, String, ?, String> hypothesis,
+                                                                       Collection<? extends String> inputs) {
+        final Map<S, Word<String>> access = HypothesisUtil.accessSequences(hypothesis, inputs);
+
+        // the middle parts of the tests, of at most depth inputs.
+        final List<Word<String>> middles = new ArrayList();
+        middles.add(Word.epsilon());
+        for (int i = 0; i < middles.size(); i++) {
+            final Word<String> middle = middles.get(i);
+            if (middle.length() < depth) for (String input : inputs) middles.add(middle.append(input));
+        }
+
+        // the characterizing sets of the states, computed on demand.
+        final Map<S, List<Word<String>>> characterizingSets = new HashMap();
+
+        final Batch batch = new Batch(hypothesis);
+        int changedStates = 0;
+        int changedTransitions = 0;
+
+        for (Map.Entry<S, Word<String>> e : access.entrySet()) {
+            final S state = e.getKey();
+            final Word<String> u = e.getValue();
+
+            long tests = batch.tests;
+            final List<Word<String>> stateWs = characterizingSets.computeIfAbsent(
+                    state, st -> HypothesisUtil.stateCharacterizingSet(hypothesis, inputs, st));
+            for (Word<String> w : stateWs) {
+                final DefaultQuery<String, Word<String>> ce = batch.test(u.concat(w));
+                if (ce != null) return ce;
+            }
+            if (batch.tests > tests) changedStates++;
+
+            for (String input : inputs) {
+                final S succ = hypothesis.getSuccessor(state, input);
+                if (succ == null) continue;
+
+                tests = batch.tests;
+                final Word<String> ux = u.append(input);
+                for (Word<String> middle : middles) {
+                    final S target = hypothesis.getSuccessor(succ, middle);
+                    if (target == null) continue;
+                    final List<Word<String>> ws = characterizingSets.computeIfAbsent(
+                            target, st -> HypothesisUtil.stateCharacterizingSet(hypothesis, inputs, st));
+                    for (Word<String> w : ws) {
+                        final DefaultQuery<String, Word<String>> ce = batch.test(ux.concat(middle, w));
+                        if (ce != null) return ce;
+                    }
+                }
+                if (batch.tests > tests) changedTransitions++;
+            }
+        }
+
+        final DefaultQuery<String, Word<String>> ce = batch.flush();
+
+        LOGGER.info(String.format("tested %d of %d states, and %d transitions (%d tests posed, %d tests passed before)",
+                changedStates, access.size(), changedTransitions, batch.tests, batch.skipped));
+
+        return ce;
+    }
+
+    /**
+     * A batch of tests that are not posed yet.
+     */
+    private class Batch {
+
+        private final MealyMachine<?, String, ?, String> hypothesis;
+
+        private final List<DefaultQuery<String, Word<String>>> queries = new ArrayList();
+
+        /**
+         * The inputs of {@link #queries}, such that a test is posed at most once.
+         */
+        private final Set<Word<String>> queued = new HashSet();
+
+        private long tests = 0;
+
+        private long skipped = 0;
+
+        Batch(MealyMachine<?, String, ?, String> hypothesis) {
+            this.hypothesis = hypothesis;
+        }
+
+        /**
+         * Tests the given word, i.e. checks it against the remembered output if it has been posed before, or adds it
+         * to this batch otherwise.
+         *
+         * @return a counterexample, or null if none is known yet.
+         */
+        DefaultQuery<String, Word<String>> test(Word<String> test) {
+            final Word<String> output = posedTests.get(test);
+            if (output != null) {
+                if (!output.equals(hypothesis.computeOutput(test))) return new DefaultQuery(test, output);
+                skipped++;
+                return null;
+            }
+
+            if (!queued.add(test)) return null;
+            queries.add(new DefaultQuery(test));
+            tests++;
+
+            if (queries.size() >= batchSize) return flush();
+            else return null;
+        }
+
+        /**
+         * Poses the tests, remembers their outputs, and returns the first counterexample.
+         */
+        DefaultQuery<String, Word<String>> flush() {
+            membershipOracle.processQueries(queries);
+
+            DefaultQuery<String, Word<String>> result = null;
+            for (DefaultQuery<String, Word<String>> query : queries) {
+                if (posedTests.size() < maxPosedTests) posedTests.put(query.getInput(), query.getOutput());
+                if (result == null && !query.getOutput().equals(hypothesis.computeOutput(query.getInput()))) {
+                    result = query;
+                }
+            }
+
+            queries.clear();
+            queued.clear();
+
+            return result;
+        }
+    }
+}
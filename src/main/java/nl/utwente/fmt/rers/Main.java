@@ -6,15 +6,18 @@ import de.learnlib.api.query.DefaultQuery;
 import nl.utwente.fmt.rers.RERSExperiment.LEARNER;
 import org.apache.commons.cli.*;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class Main {
 
     public static final LearnLogger LOGGER = LearnLogger.getLogger(Main.class);
 
-    public static void main(String[] args) throws ParseException, FileNotFoundException {
+    public static void main(String[] args) throws ParseException, IOException {
 
         final CommandLineParser parser = new DefaultParser();
         final CommandLine line = parser.parse(getOptions(), args);
@@ -35,16 +38,60 @@ public class Main {
                 final boolean disproveFirst = line.hasOption('d');
 
                 final boolean randomWords = !line.hasOption('r');
-                final RERSExperiment rersExperiment = RERSExperiment.newExperiment(
-                        problem, multiplier, minimumUnfolds, disproveFirst, LEARNER.valueOf(lineArgs[1]), randomWords);
 
-                System.out.println(
-                        "problem,learner,property,fixed,relative,size,learnsymbols,eqsymbols,emsymbols,isymbols,learnqueries,eqqueries,emqueries,iqueries");
+                final boolean incrementalEquivalence = line.hasOption('i');
+
+                final boolean reduceAlphabet = line.hasOption('a');
 
-                if (line.hasOption('l')) doOldStyleLearning(rersExperiment, Integer.parseInt(line.getOptionValue('l')));
-                else {
-                    rersExperiment.run();
-                    LOGGER.info("final states: " + rersExperiment.getFinalHypothesis().getStates().size());
+                final Budget budget = new Budget(
+                        Long.parseLong(line.getOptionValue('t', "0")),
+                        Long.parseLong(line.getOptionValue('s', "0")),
+                        Long.parseLong(line.getOptionValue('q', "0")));
+                budget.setPhaseTimeout(Budget.EQUIVALENCE, Long.parseLong(line.getOptionValue('e', "0")));
+                budget.setPhaseTimeout(Budget.PROPERTY, Long.parseLong(line.getOptionValue('p', "0")));
+                budget.setPhaseTimeout(Budget.LEARNING, Long.parseLong(line.getOptionValue("learning-timeout", "0")));
+                for (String phase : new String[]{Budget.LEARNING, Budget.EQUIVALENCE, Budget.PROPERTY}) {
+                    budget.setPhaseSymbolLimit(phase, Long.parseLong(line.getOptionValue(phase + "-symbols", "0")));
+                    budget.setPhaseResetLimit(phase, Long.parseLong(line.getOptionValue(phase + "-resets", "0")));
+                }
+
+                final List<LEARNER> learners = new ArrayList();
+                for (String learner : lineArgs[1].split(",")) learners.add(LEARNER.valueOf(learner));
+
+                final Consumer<RERSExperiment> runner = e -> {
+                    e.getBudget().enterPhase(Budget.LEARNING);
+                    if (line.hasOption('l')) doOldStyleLearning(e, Integer.parseInt(line.getOptionValue('l')));
+                    else {
+                        e.run();
+                        LOGGER.info("final states: " + e.getFinalHypothesis().getStates().size());
+                    }
+                };
+
+                final Tracer tracer = line.hasOption('T') ? new Tracer(line.getOptionValue('T'), 1 << 16) : null;
+
+                System.out.println(
+                        "problem,learner,property,fixed,relative,size,learnsymbols,eqsymbols,emsymbols,isymbols,learnqueries,eqqueries,emqueries,iqueries,totalsymbols,totalqueries");
+
+                // the experiments are constructed within the budget, because reducing the alphabet queries the SUL.
+                RERSExperiment rersExperiment = null;
+                try {
+                    if (learners.size() > 1) {
+                        final Portfolio portfolio = Portfolio.newPortfolio(problem, multiplier, minimumUnfolds,
+                                disproveFirst, learners, randomWords, incrementalEquivalence, reduceAlphabet, budget,
+                                tracer);
+                        portfolio.run(runner);
+                    } else {
+                        rersExperiment = RERSExperiment.newExperiment(
+                                problem, multiplier, minimumUnfolds, disproveFirst, learners.get(0), randomWords,
+                                incrementalEquivalence, reduceAlphabet, budget, tracer);
+                        runner.accept(rersExperiment);
+                    }
+                } catch (RuntimeException re) {
+                    final BudgetExhaustedException bee = Budget.findExhaustion(re);
+                    if (bee == null) throw re;
+                    reportExhaustion(rersExperiment, budget, bee);
+                } finally {
+                    if (tracer != null) tracer.close();
                 }
             }
 
@@ -57,8 +104,19 @@ public class Main {
         if (exit != 0) System.exit(exit);
     }
 
+    /**
+     * Learns until no counterexample is found, and then disproves all properties.
+     *
+     * The timeout is enforced by the {@link Budget} of the {@link Budget#EQUIVALENCE} phase, such that the search
+     * for a counterexample is stopped as soon as the timeout is reached.
+     *
+     * @param e the RERSExperiment.
+     * @param seconds the timeout for learning.
+     */
     static void doOldStyleLearning(RERSExperiment e, int seconds) {
         final Instant start = Instant.now();
+        final Budget budget = e.getBudget();
+        final long eqTimeout = budget.getPhaseTimeout(Budget.EQUIVALENCE);
 
         e.getLearningAlgorithm().startLearning();
         System.out.println("wtf: " + e.getLearningAlgorithm().getHypothesisModel().getStates().size());
@@ -69,13 +127,15 @@ public class Main {
             LOGGER.logPhase("Searching for counterexample");
             long eqSymbols = e.getEqSymbolCounterSUL().getStatisticalData().getCount();
             long eqResets = e.getEqResetCounterSUL().getStatisticalData().getCount();
-            ce = e.getEquivalenceAlgorithm().findCounterExample(e.getLearningAlgorithm().getHypothesisModel(), e.getInputs());
-            if (ce != null) LOGGER.logCounterexample(ce.toString());
 
-            final Instant end = Instant.now();
-            final Duration timeElapsed = Duration.between(start, end);
-            if (timeElapsed.getSeconds() > seconds) {
-                LOGGER.info("timeout reached, not using counter example");
+            final long remaining = seconds - Duration.between(start, Instant.now()).getSeconds();
+            if (remaining > 0) {
+                budget.setPhaseTimeout(Budget.EQUIVALENCE, eqTimeout > 0 ? Math.min(eqTimeout, remaining) : remaining);
+                ce = e.getEquivalenceAlgorithm().findCounterExample(e.getLearningAlgorithm().getHypothesisModel(), e.getInputs());
+                if (ce != null) LOGGER.logCounterexample(ce.toString());
+            } else {
+                LOGGER.info("timeout reached, not searching for counter example");
+                e.interruptLearning();
                 ce = null;
             }
 
@@ -90,14 +150,46 @@ public class Main {
             }
         } while (ce != null && e.getLearningAlgorithm().refineHypothesis(ce));
 
+        budget.setPhaseTimeout(Budget.EQUIVALENCE, eqTimeout);
+
         for (BlackBoxProperty p : e.getBlackBoxOracle().getProperties()) {
             p.disprove(e.getLearningAlgorithm().getHypothesisModel(), e.getInputs());
         }
     }
 
+    /**
+     * Reports an exhausted budget. The CSV lines of the properties that have been disproved so far have already been
+     * written, the remaining properties are undecided.
+     *
+     * @param e the RERSExperiment, or null if the budget is exhausted while constructing the experiment.
+     * @param budget the budget.
+     * @param bee the exhausted budget.
+     */
+    static void reportExhaustion(RERSExperiment e, Budget budget, BudgetExhaustedException bee) {
+        LOGGER.info(String.format("%s in phase %s, after %d symbols and %d resets",
+                bee.getMessage(), bee.getPhase(), budget.getSymbols().get(), budget.getResets().get()));
+
+        if (e == null) {
+            LOGGER.info("no experiment is started, all properties are undecided");
+            System.out.flush();
+            return;
+        }
+
+        int disproved = 0;
+        for (BlackBoxProperty p : e.getBlackBoxOracle().getProperties()) {
+            if (p.isDisproved()) disproved++;
+            else LOGGER.info("undecided: " + p.getProperty());
+        }
+        LOGGER.info(String.format("disproved %d of %d properties",
+                disproved, e.getBlackBoxOracle().getProperties().size()));
+
+        System.out.flush();
+    }
+
     static void printUsage() {
         final HelpFormatter formatter = new HelpFormatter();
-        formatter.printHelp("java " + Main.class.getCanonicalName() + " [problem number] [learner]", getOptions());
+        formatter.printHelp(
+                "java " + Main.class.getCanonicalName() + " [problem number] [learner[,learner...]]", getOptions());
     }
 
     static Options getOptions() {
@@ -108,6 +200,21 @@ public class Main {
         options.addOption("u", "minimum-unfolds", true, "minimum number of unfolds");
         options.addOption("d", "disprove-first", false, "use disprove first black-box oracle");
         options.addOption("r", "no-random-words", false, "do not use an additional random words equivalence oracle");
+        options.addOption("i", "incremental-equivalence", false, "only test the changed parts of a hypothesis");
+        options.addOption("a", "reduce-alphabet", false, "learn over a reduced alphabet of inputs that behave "
+                + "differently, the analysis of the alphabet is only limited by the global budgets");
+        options.addOption("T", "trace", true, "trace all queries to the given binary file, see TraceAnalyzer");
+        options.addOption("t", "timeout", true, "global timeout in seconds");
+        options.addOption("s", "symbol-budget", true, "maximum number of symbols applied to the SUL");
+        options.addOption("q", "reset-budget", true, "maximum number of resets applied to the SUL");
+        options.addOption("e", "equivalence-timeout", true, "timeout in seconds for a single equivalence query");
+        options.addOption("p", "property-timeout", true, "timeout in seconds for checking a single property");
+        options.addOption(null, "learning-timeout", true,
+                "timeout in seconds for learning, excluding the other phases and the analysis of the alphabet");
+        for (String phase : new String[]{Budget.LEARNING, Budget.EQUIVALENCE, Budget.PROPERTY}) {
+            options.addOption(null, phase + "-symbols", true, "maximum number of symbols in a single " + phase + " phase");
+            options.addOption(null, phase + "-resets", true, "maximum number of resets in a single " + phase + " phase");
+        }
         options.addOption("h", "help", false, "prints help");
 
         return options;
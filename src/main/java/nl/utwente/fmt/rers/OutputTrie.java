@@ -0,0 +1,129 @@
+package nl.utwente.fmt.rers;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A thread-safe trie of input words, where every node stores the output of the last input of its word.
+ *
+ * The number of nodes is bounded, to bound the memory used; once the bound is reached, no more nodes are added.
+ * Concurrent adds may exceed the bound by at most the number of threads.
+ *
+ * @param <N> the type of nodes, such that users of the trie can store additional information in a node.
+ */
+public class OutputTrie<N extends OutputTrie.Node<N>> {
+
+    /**
+     * A node in the trie.
+     *
+     * @param <N> the type of nodes.
+     */
+    public static class Node<N extends Node<N>> {
+
+        /**
+         * The output of the last input of the word.
+         */
+        @Getter
+        private final String output;
+
+        /**
+         * The children, or null if this node has none. Most nodes are leaves, so the map is created with the first
+         * child.
+         */
+        private volatile Map<String, N> children = null;
+
+        protected Node(String output) {
+            this.output = output;
+        }
+
+        /**
+         * Returns the child for the given input.
+         *
+         * @param input the input.
+         *
+         * @return the child, or null if there is none.
+         */
+        public N getChild(String input) {
+            final Map<String, N> children = this.children;
+            return children != null ? children.get(input) : null;
+        }
+
+        /**
+         * Returns the children, creating the map if necessary.
+         */
+        Map<String, N> children() {
+            Map<String, N> result = children;
+            if (result == null) {
+                synchronized (this) {
+                    result = children;
+                    if (result == null) {
+                        result = new ConcurrentHashMap();
+                        children = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Creates a node for a given output.
+     */
+    private final Function<String, N> nodeFactory;
+
+    @Getter
+    private final N root;
+
+    /**
+     * The maximum number of nodes.
+     */
+    private final int maxNodes;
+
+    private final AtomicInteger nodes = new AtomicInteger(1);
+
+    /**
+     * Constructs a new OutputTrie.
+     *
+     * @param nodeFactory creates a node for a given output.
+     * @param maxNodes the maximum number of nodes, after which no more nodes are added.
+     */
+    public OutputTrie(Function<String, N> nodeFactory, int maxNodes) {
+        this.nodeFactory = nodeFactory;
+        this.maxNodes = maxNodes;
+        root = nodeFactory.apply("");
+    }
+
+    /**
+     * Returns the child of a node for the given input, and adds the child if it does not exist.
+     *
+     * @param node the node.
+     * @param input the input.
+     * @param output the output of the input, if the child is added.
+     *
+     * @return the child, or null if the child does not exist and the trie is full.
+     */
+    public N addChild(N node, String input, String output) {
+        final N child = node.getChild(input);
+        if (child != null) return child;
+        if (nodes.get() >= maxNodes) return null;
+
+        final N n = nodeFactory.apply(output);
+        final N existing = node.children().putIfAbsent(input, n);
+        if (existing != null) return existing;
+        nodes.incrementAndGet();
+        return n;
+    }
+
+    /**
+     * Returns the number of nodes in the trie.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return nodes.get();
+    }
+}
@@ -0,0 +1,161 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.logging.LearnLogger;
+import lombok.Getter;
+import nl.utwente.fmt.rers.RERSExperiment.LEARNER;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A portfolio of RERSExperiments with different learners, that run concurrently.
+ *
+ * Every experiment has its own ProblemSUL (sharing the {@link DeadPrefixIndex}) and a fork of the {@link Budget}.
+ * The experiments share a {@link QueryCache} and {@link DecidedProperties}, such that a property is reported by the
+ * first learner that disproves it. The portfolio stops when all properties are disproved, when the hypothesis of the
+ * first experiment converged (its final hypothesis decides the remaining properties), or when the budget is
+ * exhausted.
+ */
+public class Portfolio {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(Portfolio.class);
+
+    private final Budget budget;
+
+    private final List<LEARNER> learners;
+
+    @Getter
+    private final List<RERSExperiment> experiments;
+
+    @Getter
+    private final QueryCache cache;
+
+    @Getter
+    private final DecidedProperties decided;
+
+    /**
+     * The number of properties.
+     */
+    private final int properties;
+
+    private Portfolio(Budget budget,
+                      List<LEARNER> learners,
+                      List<RERSExperiment> experiments,
+                      QueryCache cache,
+                      DecidedProperties decided,
+                      int properties) {
+        this.budget = budget;
+        this.learners = learners;
+        this.experiments = experiments;
+        this.cache = cache;
+        this.decided = decided;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns a new Portfolio.
+     *
+     * @param number the {@link nl.utwente.fmt.rers.problems.seq.Problem} number to instantiate.
+     * @param multiplier the multiplier used when computing the number of unrolls for a lasso.
+     * @param minimumUnfolds the minimum number of times a lasso needs to be unrolled.
+     * @param disproveFirst whether to use a disprove first black-box oracle.
+     * @param learners the learners to instantiate, one experiment for each.
+     * @param randomWords whether to use an additional random words equivalence oracle.
+     * @param incrementalEquivalence whether to use an {@link IncrementalWpEQOracle}.
+     * @param reduceAlphabet whether to learn over an {@link AlphabetReduction}, which is computed once.
+     * @param budget the budget of the whole portfolio.
+     * @param tracer the tracer for queries, or null if queries are not traced.
+     *
+     * @return the Portfolio.
+     *
+     * @throws FileNotFoundException when the appropriate Java class can not be found.
+     */
+    public static Portfolio newPortfolio(int number,
+                                         double multiplier,
+                                         int minimumUnfolds,
+                                         boolean disproveFirst,
+                                         List<LEARNER> learners,
+                                         boolean randomWords,
+                                         boolean incrementalEquivalence,
+                                         boolean reduceAlphabet,
+                                         Budget budget,
+                                         Tracer tracer) throws FileNotFoundException {
+        final int properties = RERSExperiment.parseLTL(number).size();
+        final QueryCache cache = new QueryCache(tracer);
+        final DecidedProperties decided = new DecidedProperties(
+                properties, () -> budget.cancel("all properties are disproved"));
+
+        final DeadPrefixIndex deadPrefixIndex = new DeadPrefixIndex();
+
+        final List<RERSExperiment> experiments = new ArrayList();
+        for (LEARNER learner : learners) {
+            final ProblemSUL problemSUL = new ProblemSUL(number, budget.fork(), deadPrefixIndex, tracer);
+            // the alphabet is analysed by the first experiment only, the others learn over a copy of its reduction.
+            final AlphabetReduction reduction = experiments.isEmpty() || !reduceAlphabet ?
+                    null : experiments.get(0).getReduction().copy();
+            experiments.add(RERSExperiment.newExperiment(problemSUL, multiplier, minimumUnfolds, disproveFirst,
+                    learner, randomWords, incrementalEquivalence, reduceAlphabet, reduction, cache, decided));
+        }
+
+        return new Portfolio(budget, learners, experiments, cache, decided, properties);
+    }
+
+    /**
+     * Runs all experiments concurrently, until one finishes, or the budget is exhausted.
+     *
+     * @param runner runs a single experiment.
+     */
+    public void run(Consumer<RERSExperiment> runner) {
+        final ExecutorService executor = Executors.newFixedThreadPool(experiments.size());
+        try {
+            final List<Future<?>> futures = new ArrayList();
+            for (int i = 0; i < experiments.size(); i++) {
+                final LEARNER learner = learners.get(i);
+                final RERSExperiment experiment = experiments.get(i);
+                futures.add(executor.submit(() -> run(learner, experiment, runner)));
+            }
+
+            for (Future<?> future : futures) future.get();
+        } catch (InterruptedException ie) {
+            budget.cancel("interrupted");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            budget.cancel("failed");
+            throw new IllegalStateException(ee.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LOGGER.info(String.format("query cache: %d hits, %d misses, %d nodes",
+                cache.getHits().get(), cache.getMisses().get(), cache.size()));
+        for (int i = 0; i < properties; i++) {
+            final String winner = decided.getWinner(i);
+            if (winner != null) LOGGER.info(String.format("property #%d disproved by %s", i, winner));
+            else LOGGER.info(String.format("property #%d not disproved", i));
+        }
+    }
+
+    /**
+     * Runs a single experiment, and stops the portfolio when its hypothesis converged. An experiment that stops
+     * because of the budget of a phase only decides its own properties, the other experiments continue.
+     */
+    private void run(LEARNER learner, RERSExperiment experiment, Consumer<RERSExperiment> runner) {
+        try {
+            runner.accept(experiment);
+            if (experiment.isConverged()) {
+                budget.cancel(learner + " finished");
+                LOGGER.info(learner + " finished");
+            } else LOGGER.info(learner + " stopped before its hypothesis converged, the other learners continue");
+        } catch (RuntimeException re) {
+            final BudgetExhaustedException bee = Budget.findExhaustion(re);
+            if (bee == null) throw re;
+            LOGGER.info(String.format("%s stopped: %s", learner, bee.getMessage()));
+        }
+    }
+}
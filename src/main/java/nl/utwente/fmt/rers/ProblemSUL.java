@@ -33,15 +33,76 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     final int number;
 
     /**
-     * Constructs a new ProblemSUL.
+     * The budget that is checked on every step and reset.
+     */
+    @Getter
+    private final Budget budget;
+
+    /**
+     * The prefixes that are known to lead to a sink, shared with every fork.
+     */
+    @Getter
+    private final DeadPrefixIndex deadPrefixIndex;
+
+    /**
+     * The tracer for queries, or null if queries are not traced.
+     */
+    @Getter
+    private final Tracer tracer;
+
+    /**
+     * Constructs a new ProblemSUL, without a budget.
      *
      * @param number the problem number to instantiate
      *
      * @throws FileNotFoundException when the appropriate Java class can not be found.
      */
     public ProblemSUL(int number) throws FileNotFoundException {
+        this(number, new Budget());
+    }
+
+    /**
+     * Constructs a new ProblemSUL.
+     *
+     * @param number the problem number to instantiate
+     * @param budget the budget that is checked on every step and reset
+     *
+     * @throws FileNotFoundException when the appropriate Java class can not be found.
+     */
+    public ProblemSUL(int number, Budget budget) throws FileNotFoundException {
+        this(number, budget, new DeadPrefixIndex());
+    }
+
+    /**
+     * Constructs a new ProblemSUL.
+     *
+     * @param number the problem number to instantiate
+     * @param budget the budget that is checked on every step and reset
+     * @param deadPrefixIndex the prefixes that are known to lead to a sink
+     *
+     * @throws FileNotFoundException when the appropriate Java class can not be found.
+     */
+    public ProblemSUL(int number, Budget budget, DeadPrefixIndex deadPrefixIndex) throws FileNotFoundException {
+        this(number, budget, deadPrefixIndex, null);
+    }
+
+    /**
+     * Constructs a new ProblemSUL.
+     *
+     * @param number the problem number to instantiate
+     * @param budget the budget that is checked on every step and reset
+     * @param deadPrefixIndex the prefixes that are known to lead to a sink
+     * @param tracer the tracer for queries, or null if queries are not traced
+     *
+     * @throws FileNotFoundException when the appropriate Java class can not be found.
+     */
+    public ProblemSUL(int number, Budget budget, DeadPrefixIndex deadPrefixIndex, Tracer tracer)
+            throws FileNotFoundException {
         problem = newProblem(number);
         this.number = number;
+        this.budget = budget;
+        this.deadPrefixIndex = deadPrefixIndex;
+        this.tracer = tracer;
     }
 
     /**
@@ -68,8 +129,41 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
      */
     private List<String> inputs = new ArrayList();
 
+    /**
+     * The outputs of {@link #inputs}, up to (and including) the input that leads to a sink.
+     */
+    private final List<String> outputs = new ArrayList();
+
+    /**
+     * The inputs that are answered by the {@link #deadPrefixIndex}, but not yet applied to the Problem.
+     */
+    private final List<String> pending = new ArrayList();
+
+    /**
+     * The node of the {@link #deadPrefixIndex} for {@link #inputs}, or null if the inputs are not in the index.
+     */
+    private DeadPrefixIndex.Node node;
+
+    /**
+     * Whether a sink has been reached since the last {@link #post()}.
+     */
+    private boolean dead = false;
+
+    /**
+     * The number of inputs since the last {@link #post()} that are answered without stepping the Problem.
+     */
+    @Getter
+    private int shortcutSymbols = 0;
+
+    /**
+     * Counts a reset in the {@link #budget}.
+     *
+     * @throws BudgetExhaustedException when the budget is exhausted.
+     */
     @Override
     public void pre() {
+        budget.countReset();
+        node = deadPrefixIndex.getRoot();
     }
 
     /**
@@ -79,8 +173,20 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     public void post() {
         problem.reset();
         inputs.clear();
+        outputs.clear();
+        pending.clear();
+        node = null;
+        dead = false;
+        invalid = false;
+        shortcutSymbols = 0;
     }
 
+    /**
+     * Whether an invalid input has been applied since the last {@link #post()}.
+     */
+    @Getter
+    private boolean invalid = false;
+
     /**
      * A Set of errors triggered.
      */
@@ -89,19 +195,79 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     /**
      * Steps through a Problem, be calling {@link Problem#calculateOutput(String)}.
      *
-     * Additionally, when an error is triggered the error is appended to {@link #errors}
+     * An invalid input, or an error, leads to a sink (the RERS program terminates). After a sink every input
+     * produces the empty output, without stepping the Problem. Prefixes that lead to a sink are added to the
+     * {@link #deadPrefixIndex}; as long as the inputs follow the index, the outputs are taken from the index, and
+     * the Problem is only stepped when the inputs leave the index.
+     *
+     * Additionally, when an error is triggered the error is appended to {@link #errors}, and when an invalid input
+     * is applied {@link #invalid} is set.
      *
      * @param input the input to apply.
      *
      * @return the output
+     *
+     * @throws BudgetExhaustedException when the budget is exhausted.
      */
     @Override
     public String step(String input) {
+        budget.countSymbol();
         inputs.add(input);
+
+        if (dead) {
+            shortcutSymbols++;
+            return "";
+        }
+
+        if (node != null) {
+            final DeadPrefixIndex.Node child = node.getChild(input);
+            if (child != null) {
+                shortcutSymbols++;
+                pending.add(input);
+                outputs.add(child.getOutput());
+                node = child;
+                if (child.isDead()) {
+                    dead = true;
+                    invalid = child.isInvalid();
+                }
+                return child.getOutput();
+            } else {
+                applyPending();
+                node = null;
+            }
+        }
+
+        final String output = calculateOutput(input);
+        outputs.add(output);
+        if (dead) deadPrefixIndex.add(inputs, outputs, invalid);
+
+        return output;
+    }
+
+    /**
+     * Applies the inputs that are answered by the {@link #deadPrefixIndex} to the Problem.
+     */
+    private void applyPending() {
+        for (String input : pending) calculateOutput(input);
+        shortcutSymbols -= pending.size();
+        pending.clear();
+    }
+
+    /**
+     * Applies an input to the Problem, and sets {@link #dead} when the input leads to a sink.
+     *
+     * @param input the input to apply.
+     *
+     * @return the output
+     */
+    private String calculateOutput(String input) {
         try {
             problem.calculateOutput(input);
         } catch (IllegalArgumentException iae) {
+            invalid = true;
+            dead = true;
         } catch (IllegalStateException ise) {
+            dead = true;
             final String error = ise.getMessage();
             if (errors.add(error)) {
                 LOGGER.info("assertion triggered: " + error);
@@ -124,7 +290,8 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     }
 
     /**
-     * Forks the the current ProblemSUL, by instantiating a new ProblemSUL with the same {@link #number}.
+     * Forks the the current ProblemSUL, by instantiating a new ProblemSUL with the same {@link #number},
+     * {@link #budget}, {@link #deadPrefixIndex} and {@link #tracer}.
      *
      * @return the forked ProblemSUL.
      *
@@ -133,7 +300,7 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     @Override
     public ObservableSUL<Problem, String, String> fork() throws UnsupportedOperationException {
         try {
-            final ProblemSUL problemSUL = new ProblemSUL(number);
+            final ProblemSUL problemSUL = new ProblemSUL(number, budget, deadPrefixIndex, tracer);
             return problemSUL;
         } catch (FileNotFoundException ex) {
             throw new UnsupportedOperationException(ex);
@@ -146,12 +313,13 @@ public class ProblemSUL implements ObservableSUL<Problem, String, String> {
     }
 
     /**
-     * Returns the current Problem instance.
+     * Returns the current Problem instance. The inputs answered by the {@link #deadPrefixIndex} are applied first.
      *
      * @return the current Problem instance.
      */
     @Override
     public Problem getState() {
+        applyPending();
         return problem;
     }
 
@@ -0,0 +1,173 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import lombok.Getter;
+import net.automatalib.words.Word;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache of queries, that can be shared by the membership oracles of concurrent experiments.
+ *
+ * The cache is a prefix tree of inputs, where every node stores the output of the last input of its prefix. Hence, a
+ * query is answered when its input is a prefix of a cached input, regardless of how it is split in prefix and suffix.
+ * The number of nodes is bounded; once the bound is reached, no more queries are cached.
+ */
+public class QueryCache {
+
+    /**
+     * A node in the prefix tree.
+     */
+    private static class Node extends OutputTrie.Node<Node> {
+
+        Node(String output) {
+            super(output);
+        }
+    }
+
+    private final OutputTrie<Node> trie;
+
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The tracer for cache hits, or null if cache hits are not traced.
+     */
+    private final Tracer tracer;
+
+    /**
+     * Constructs a new QueryCache, with at most 2^22 nodes.
+     *
+     * @param tracer the tracer for cache hits, or null if cache hits are not traced.
+     */
+    public QueryCache(Tracer tracer) {
+        this(1 << 22, tracer);
+    }
+
+    /**
+     * Constructs a new QueryCache.
+     *
+     * @param maxNodes the maximum number of nodes, after which no more queries are cached.
+     * @param tracer the tracer for cache hits, or null if cache hits are not traced.
+     */
+    public QueryCache(int maxNodes, Tracer tracer) {
+        trie = new OutputTrie<>(Node::new, maxNodes);
+        this.tracer = tracer;
+    }
+
+    /**
+     * Returns the number of nodes in the prefix tree.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return trie.size();
+    }
+
+    /**
+     * Returns a membership oracle that answers queries from this cache, and poses the remaining queries to the given
+     * oracle.
+     *
+     * @param origin the origin of the queries, used for tracing.
+     * @param oracle the oracle to pose queries that are not cached.
+     * @param store whether to add the answers of the given oracle to this cache. This should be false for oracles
+     *              that pose many queries that are not reused, e.g. the test suites of equivalence oracles.
+     *
+     * @return the cached membership oracle.
+     */
+    public MembershipOracle<String, Word<String>> wrap(String origin,
+                                                       MembershipOracle<String, Word<String>> oracle,
+                                                       boolean store) {
+        return new CachedOracle(tracer != null ? tracer.origin(origin) : -1, oracle, store);
+    }
+
+    /**
+     * Looks up the output of a word.
+     *
+     * @param input the word.
+     * @param from the index from which the output is returned.
+     *
+     * @return the output of the word from the given index, or null if the word is not cached.
+     */
+    private Word<String> lookup(Word<String> input, int from) {
+        final List<String> output = new ArrayList(input.length() - from);
+        Node node = trie.getRoot();
+        for (int i = 0; i < input.length(); i++) {
+            node = node.getChild(input.getSymbol(i));
+            if (node == null) return null;
+            if (i >= from) output.add(node.getOutput());
+        }
+        return Word.fromList(output);
+    }
+
+    /**
+     * Adds the output of a word.
+     *
+     * @param input the word.
+     * @param output the output of the whole word.
+     */
+    private void insert(Word<String> input, Word<String> output) {
+        Node node = trie.getRoot();
+        for (int i = 0; i < input.length() && node != null; i++) {
+            node = trie.addChild(node, input.getSymbol(i), output.getSymbol(i));
+        }
+    }
+
+    @ParametersAreNonnullByDefault
+    private class CachedOracle implements MembershipOracle<String, Word<String>> {
+
+        private final int originId;
+
+        private final MembershipOracle<String, Word<String>> oracle;
+
+        private final boolean store;
+
+        CachedOracle(int originId, MembershipOracle<String, Word<String>> oracle, boolean store) {
+            this.originId = originId;
+            this.oracle = oracle;
+            this.store = store;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<String, Word<String>>> queries) {
+            final List<Query<String, Word<String>>> uncached = new ArrayList();
+            final List<DefaultQuery<String, Word<String>>> posed = new ArrayList();
+
+            for (Query<String, Word<String>> query : queries) {
+                final Word<String> output = lookup(query.getInput(), query.getPrefix().length());
+                if (output != null) {
+                    hits.incrementAndGet();
+                    if (tracer != null) {
+                        final int length = query.getInput().length();
+                        tracer.record(originId, true, length, length, tracer.now(), 0);
+                    }
+                    query.answer(output);
+                } else {
+                    misses.incrementAndGet();
+                    uncached.add(query);
+                    posed.add(new DefaultQuery(query.getInput()));
+                }
+            }
+
+            if (posed.isEmpty()) return;
+
+            oracle.processQueries(posed);
+
+            for (int i = 0; i < posed.size(); i++) {
+                final Query<String, Word<String>> query = uncached.get(i);
+                final Word<String> output = posed.get(i).getOutput();
+                if (store) insert(query.getInput(), output);
+                query.answer(output.suffix(query.getSuffix().length()));
+            }
+        }
+    }
+}
@@ -80,15 +80,54 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
     @Getter
     private final ResetCounterSUL eqResetCounterSUL;
 
+    @Getter
+    private final Budget budget;
+
+    private final BudgetEQOracle budgetEQOracle;
+
+    /**
+     * The reduction of the alphabet that is learned over, or null if the full alphabet is learned.
+     */
+    @Getter
+    private final AlphabetReduction reduction;
+
+    /**
+     * Whether learning is stopped before the hypothesis converged, see {@link #interruptLearning()}.
+     */
+    private volatile boolean interrupted = false;
+
     private RERSExperiment(MealyLearner learningAlgorithm,
-                           MealyEquivalenceOracle equivalenceAlgorithm,
+                           BudgetEQOracle equivalenceAlgorithm,
                            Alphabet inputs,
                            MealyBlackBoxOracle<String, String> blackBoxOracle,
                            SymbolCounterSUL eqSymbolCounterSUL,
-                           ResetCounterSUL eqResetCounterSUL) {
+                           ResetCounterSUL eqResetCounterSUL,
+                           Budget budget,
+                           AlphabetReduction reduction) {
         super(learningAlgorithm, equivalenceAlgorithm, inputs, blackBoxOracle, true);
         this.eqSymbolCounterSUL = eqSymbolCounterSUL;
         this.eqResetCounterSUL = eqResetCounterSUL;
+        this.budget = budget;
+        budgetEQOracle = equivalenceAlgorithm;
+        this.reduction = reduction;
+    }
+
+    /**
+     * Marks that learning is stopped before the hypothesis converged, e.g. because a timeout is reached before
+     * searching for a counterexample.
+     */
+    public void interruptLearning() {
+        interrupted = true;
+    }
+
+    /**
+     * Returns whether the hypothesis converged, i.e. whether learning is not interrupted, and the last search for a
+     * counterexample was not stopped by the budget of the {@link Budget#EQUIVALENCE} phase.
+     *
+     * @return whether the hypothesis converged.
+     */
+    public boolean isConverged() {
+        return !interrupted && !budgetEQOracle.isExhausted();
     }
 
     /**
@@ -101,6 +140,11 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
      *                      instead of a {@link CExFirstMealyBBOracle}.
      * @param learner the learner to instantiate.
      * @param randomWords whether to use an additional {@link de.learnlib.oracle.equivalence.RandomWordsEQOracle}.
+     * @param incrementalEquivalence whether to use an {@link IncrementalWpEQOracle}, instead of a
+     *                               {@link MealyWpMethodEQOracle}.
+     * @param reduceAlphabet whether to learn over an {@link AlphabetReduction}.
+     * @param budget the budget that is shared by the SUL, the equivalence oracle and the properties.
+     * @param tracer the tracer for queries, or null if queries are not traced.
      *
      * @return the RERSExperiment
      *
@@ -111,39 +155,117 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
                                                int minimumUnfolds,
                                                boolean disproveFirst,
                                                LEARNER learner,
-                                               boolean randomWords) throws FileNotFoundException {
-        final ProblemSUL problemSUL = new ProblemSUL(number);
+                                               boolean randomWords,
+                                               boolean incrementalEquivalence,
+                                               boolean reduceAlphabet,
+                                               Budget budget,
+                                               Tracer tracer) throws FileNotFoundException {
+        final ProblemSUL problemSUL = new ProblemSUL(number, budget, new DeadPrefixIndex(), tracer);
+        return newExperiment(problemSUL, multiplier, minimumUnfolds, disproveFirst, learner,
+                randomWords, incrementalEquivalence, reduceAlphabet, null, null, new DecidedProperties());
+    }
 
-        final SymbolCounterSUL learnSymbolCounterSUL = new SymbolCounterSUL("learner", problemSUL);
+    /**
+     * Returns a new RERSExperiment, for a given ProblemSUL. This allows concurrent experiments (with their own
+     * ProblemSUL) to share a {@link QueryCache} and {@link DecidedProperties}.
+     *
+     * @param problemSUL the ProblemSUL, its {@link Budget} is shared by the equivalence oracle and the properties,
+     *                   and its {@link Tracer} (if any) traces the queries of every oracle.
+     * @param multiplier the multiplier used when computing the number of unrolls for a lasso.
+     * @param minimumUnfolds the minimum number of times a lasso needs to be unrolled.
+     * @param disproveFirst whether to use a {@link DisproveFirstMealyBBOracle},
+     *                      instead of a {@link CExFirstMealyBBOracle}.
+     * @param learner the learner to instantiate.
+     * @param randomWords whether to use an additional {@link de.learnlib.oracle.equivalence.RandomWordsEQOracle}.
+     * @param incrementalEquivalence whether to use an {@link IncrementalWpEQOracle}, instead of a
+     *                               {@link MealyWpMethodEQOracle}.
+     * @param reduceAlphabet whether to learn over an {@link AlphabetReduction}.
+     * @param reduction the AlphabetReduction to learn over (it is split by this experiment only), or null to analyse
+     *                  the alphabet when reduceAlphabet is set.
+     * @param sharedCache the cache for the membership queries of the learner, or null if queries are not shared
+     *                    (they are still cached when the alphabet is reduced).
+     * @param decided the properties that are decided.
+     *
+     * @return the RERSExperiment
+     *
+     * @throws FileNotFoundException when the appropriate file containing LTL formulae can not be found.
+     */
+    public static RERSExperiment newExperiment(ProblemSUL problemSUL,
+                                               double multiplier,
+                                               int minimumUnfolds,
+                                               boolean disproveFirst,
+                                               LEARNER learner,
+                                               boolean randomWords,
+                                               boolean incrementalEquivalence,
+                                               boolean reduceAlphabet,
+                                               AlphabetReduction reduction,
+                                               QueryCache sharedCache,
+                                               DecidedProperties decided) throws FileNotFoundException {
+        final int number = problemSUL.getNumber();
+
+        // a reduced alphabet restarts the learner on every split, the cache answers the queries posed before.
+        final QueryCache cache =
+                sharedCache == null && reduceAlphabet ? new QueryCache(problemSUL.getTracer()) : sharedCache;
+        final Budget budget = problemSUL.getBudget();
+
+        final SymbolCounterSUL learnSymbolCounterSUL =
+                new SymbolCounterSUL("learner", trace("learner", problemSUL));
         final ResetCounterSUL learnResetCounterSUL = new ResetCounterSUL("learner", learnSymbolCounterSUL);
         final SUL learnSUL = learnResetCounterSUL;
-        final SULOracle learnOracle = new SULOracle(learnSUL);
+        final MembershipOracle learnOracle =
+                cache != null ? cache.wrap("learner", new SULOracle(learnSUL), true) : new SULOracle(learnSUL);
         final SymbolQueryOracle learnSymbolQueryOracle = new SULSymbolQueryOracle(learnSUL);
 
-        final SymbolCounterObservableSUL eqSymbolCounterSUL = new SymbolCounterObservableSUL("equivalence", problemSUL);
+        final SymbolCounterObservableSUL eqSymbolCounterSUL =
+                new SymbolCounterObservableSUL("equivalence", trace("equivalence", problemSUL));
         final ResetCounterObservableSUL eqResetCounterSUL = new ResetCounterObservableSUL("equivalence", eqSymbolCounterSUL);
         final SUL eqSUL = eqResetCounterSUL;
         final SULOracle eqOracle = new SULOracle(eqSUL);
 
-        final SymbolCounterObservableSUL emSymbolCounterSUL = new SymbolCounterObservableSUL("emptiness", problemSUL);
+        final SymbolCounterObservableSUL emSymbolCounterSUL =
+                new SymbolCounterObservableSUL("emptiness", trace("emptiness", problemSUL));
         final ResetCounterObservableSUL emResetCounterSUL = new ResetCounterObservableSUL("emptiness", emSymbolCounterSUL);
         final ObservableSUL emSUL = emResetCounterSUL;
 
-        final SymbolCounterSUL iSymbolCounterSUL = new SymbolCounterSUL("inclusion", problemSUL);
+        final SymbolCounterSUL iSymbolCounterSUL =
+                new SymbolCounterSUL("inclusion", trace("inclusion", problemSUL));
         final ResetCounterSUL iResetCounterSUL = new ResetCounterSUL("inclusion", iSymbolCounterSUL);
         final SUL iSUL = iResetCounterSUL;
         final SULOracle iOracle = new SULOracle(iSUL);
 
         final Alphabet alphabet = Alphabets.fromArray(problemSUL.getInputs());
 
-        final MembershipOracle membershipOracle =
+        MembershipOracle membershipOracle =
                 new StaticParallelOracleBuilder(Suppliers.ofInstance(eqOracle)).
                                     withDefaultNumInstances().
                                     withMinBatchSize(50000).
                                     withPoolPolicy(PoolPolicy.FIXED).
                                     create();
+        // the test suites are not reused, hence only the queries of the learners are added to the cache.
+        if (cache != null) membershipOracle = cache.wrap("equivalence", membershipOracle, false);
+
+        MealyEquivalenceOracle equivalenceOracle;
+        if (incrementalEquivalence) equivalenceOracle = new IncrementalWpEQOracle(membershipOracle, 3, 50000);
+        else equivalenceOracle = new MealyWpMethodEQOracle(membershipOracle, 3);
+
+        final MealyLearner mealyLearner;
+        final AlphabetReduction alphabetReduction;
+        if (reduceAlphabet) {
+            // the analysis is counted in the learner columns, but it runs before the learning phase starts.
+            if (reduction != null) alphabetReduction = reduction;
+            else {
+                alphabetReduction =
+                        AlphabetReduction.analyse(learnSUL, problemSUL, alphabet, new Random(123456l), 50, 10, 10);
+            }
+            mealyLearner = new ReducedMealyLearner(
+                    alphabetReduction, a -> newLearner(learner, a, learnOracle, learnSymbolQueryOracle), learnOracle);
+            // only the Wp-method runs over the reduced alphabet, the random words run over the full alphabet.
+            equivalenceOracle = new ReducedEQOracle(equivalenceOracle, alphabetReduction, membershipOracle);
+        } else {
+            alphabetReduction = null;
+            mealyLearner = newLearner(learner, alphabet, learnOracle, learnSymbolQueryOracle);
+        }
 
-        MealyEquivalenceOracle equivalenceOracle = new MealyWpMethodEQOracle(membershipOracle, 3);
         if (randomWords) {
             equivalenceOracle = new MealyEQOracleChain(
                     equivalenceOracle,
@@ -154,37 +276,7 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
                             new Random(123456l)));
         }
 
-        final MealyLearner mealyLearner;
-
-        switch (learner) {
-            case ADT:
-                mealyLearner = new ADTLearnerBuilder().withAlphabet(alphabet).withOracle(learnSymbolQueryOracle).create();
-                break;
-            case DHC:
-                mealyLearner = new MealyDHC(alphabet, learnOracle);
-                break;
-            case DiscriminationTree:
-                mealyLearner = new DTLearnerMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            case KearnsVazirani:
-                mealyLearner = new KearnsVaziraniMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            case ExtensibleLStar:
-                mealyLearner = new ExtensibleLStarMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            case MalerPnueli:
-                mealyLearner = new MalerPnueliMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            case RivestSchapire:
-                mealyLearner = new RivestSchapireMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            case TTT:
-                mealyLearner = new TTTLearnerMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
-                break;
-            default:
-                mealyLearner = null;
-                break;
-        }
+        final BudgetEQOracle budgetEQOracle = new BudgetEQOracle(equivalenceOracle, budget);
 
         final Function<String, String> edgeParser = s -> s;
 
@@ -194,7 +286,8 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
                 //withInheritIO(true).withKeepFiles(true).
                 create();
 
-        final MealyEmptinessOracle emptinessOracle = new MealyBreadthFirstEmptinessOracle(1, new SULOracle(problemSUL));
+        final MealyEmptinessOracle emptinessOracle =
+                new MealyBreadthFirstEmptinessOracle(1, new SULOracle(trace("breadth-first emptiness", problemSUL)));
 
         final MealyLassoEmptinessOracle lassoEmptinessOracle =
                 new MealyLassoMealyEmptinessOracle(AbstractSULOmegaOracle.newOracle(emSUL));
@@ -220,7 +313,9 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
                     learnResetCounterSUL,
                     eqResetCounterSUL,
                     emResetCounterSUL,
-                    iResetCounterSUL);
+                    iResetCounterSUL,
+                    budget,
+                    decided);
             properties.add(p);
         }
 
@@ -229,7 +324,70 @@ public class RERSExperiment extends MealyBBCExperiment<String, String> {
         else blackBoxOracle = new CExFirstMealyBBOracle(properties);
 
         return new RERSExperiment(
-                mealyLearner, equivalenceOracle, alphabet, blackBoxOracle, eqSymbolCounterSUL, eqResetCounterSUL);
+                mealyLearner, budgetEQOracle, alphabet, blackBoxOracle, eqSymbolCounterSUL, eqResetCounterSUL, budget,
+                alphabetReduction);
+    }
+
+    /**
+     * Wraps a ProblemSUL in a {@link TracingSUL}, if the ProblemSUL has a {@link Tracer}.
+     *
+     * @param origin the origin of the queries.
+     * @param problemSUL the ProblemSUL.
+     *
+     * @return the (traced) SUL.
+     */
+    static ObservableSUL<Problem, String, String> trace(String origin, ProblemSUL problemSUL) {
+        if (problemSUL.getTracer() != null) return new TracingSUL(origin, problemSUL, problemSUL.getTracer());
+        else return problemSUL;
+    }
+
+    /**
+     * Returns a new MealyLearner.
+     *
+     * @param learner the learner to instantiate.
+     * @param alphabet the input alphabet to learn.
+     * @param learnOracle the membership oracle.
+     * @param learnSymbolQueryOracle the symbol query oracle (for {@link LEARNER#ADT}).
+     *
+     * @return the MealyLearner.
+     */
+    static MealyLearner newLearner(LEARNER learner,
+                                   Alphabet alphabet,
+                                   MembershipOracle learnOracle,
+                                   SymbolQueryOracle learnSymbolQueryOracle) {
+        final MealyLearner mealyLearner;
+
+        switch (learner) {
+            case ADT:
+                mealyLearner = new ADTLearnerBuilder().withAlphabet(alphabet).withOracle(learnSymbolQueryOracle).create();
+                break;
+            case DHC:
+                mealyLearner = new MealyDHC(alphabet, learnOracle);
+                break;
+            case DiscriminationTree:
+                mealyLearner = new DTLearnerMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            case KearnsVazirani:
+                mealyLearner = new KearnsVaziraniMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            case ExtensibleLStar:
+                mealyLearner = new ExtensibleLStarMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            case MalerPnueli:
+                mealyLearner = new MalerPnueliMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            case RivestSchapire:
+                mealyLearner = new RivestSchapireMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            case TTT:
+                mealyLearner = new TTTLearnerMealyBuilder().withAlphabet(alphabet).withOracle(learnOracle).create();
+                break;
+            default:
+                mealyLearner = null;
+                break;
+        }
+
+        return mealyLearner;
     }
 
     /**
@@ -19,9 +19,10 @@ import java.util.Collection;
 /**
  * Wrapper around a MealyBlackBoxProperty for several features:
  *
- *  - write a CSV line when a property is falsified,
+ *  - write a CSV line when a property is falsified (unless another learner falsified it first),
  *  - also try to falsify a property with a fixed number of loop unrolls,
- *  - also try to falsify a property without a LassoEmptinessOracle.
+ *  - also try to falsify a property without a LassoEmptinessOracle,
+ *  - stop checking a property when the {@link Budget} of the {@link Budget#PROPERTY} phase is exhausted.
  */
 @ParametersAreNonnullByDefault
 public class RERSProperty implements MealyBlackBoxProperty<String, String, String> {
@@ -54,6 +55,10 @@ public class RERSProperty implements MealyBlackBoxProperty<String, String, Strin
     private final ResetCounterSUL emResetCounterSUL;
     private final ResetCounterSUL iResetCounterSUL;
 
+    private final Budget budget;
+
+    private final DecidedProperties decided;
+
     public RERSProperty(int problem,
                         String learner,
                         MealyBlackBoxProperty p,
@@ -67,7 +72,9 @@ public class RERSProperty implements MealyBlackBoxProperty<String, String, Strin
                         ResetCounterSUL learnResetCounterSUL,
                         ResetCounterSUL eqResetCounterSUL,
                         ResetCounterSUL emResetCounterSUL,
-                        ResetCounterSUL iResetCounterSUL) {
+                        ResetCounterSUL iResetCounterSUL,
+                        Budget budget,
+                        DecidedProperties decided) {
         this.problem = problem;
         this.learner = learner;
         this.property = p;
@@ -85,11 +92,18 @@ public class RERSProperty implements MealyBlackBoxProperty<String, String, Strin
         this.emResetCounterSUL = emResetCounterSUL;
         this.iResetCounterSUL = iResetCounterSUL;
 
+        this.budget = budget;
+        this.decided = decided;
     }
 
+    /**
+     * Returns whether this property is disproved, by this learner or by another learner.
+     *
+     * @return whether this property is disproved.
+     */
     @Override
     public boolean isDisproved() {
-        return property.isDisproved();
+        return property.isDisproved() || decided.getWinner(propertyNumber) != null;
     }
 
     @Override
@@ -112,82 +126,151 @@ public class RERSProperty implements MealyBlackBoxProperty<String, String, Strin
      * Disproves this property. Also try to disprove this property by unrolling the lasso a fixed number of times,
      * and without an LassoEmptinessOracle.
      *
+     * This is done within the {@link Budget#PROPERTY} phase of the {@link #budget}. When the budget of the phase is
+     * exhausted, the property remains undecided (unless it has already been disproved). A property that has been
+     * decided by another learner is not checked.
+     *
      * @param hypothesis the current hypothesis.
      * @param inputs the alphabet
      * @return the query that disproves this property.
      *
      * @throws ModelCheckingException
+     * @throws BudgetExhaustedException when the global budget is exhausted.
      */
     @Nullable
     @Override
     public DefaultQuery disprove(MealyMachine hypothesis, Collection inputs) throws ModelCheckingException {
 
-        final DefaultQuery<String, Word<String>> result = property.disprove(hypothesis, inputs);
-
-        {
-            mealyModelCheckerLasso.setMinimumUnfolds(3);
-            mealyModelCheckerLasso.setMultiplier(0.0);
-            final MealyLasso testLasso =
-                    mealyModelCheckerLasso.findCounterExample(hypothesis, inputs, property.getProperty());
-            final DefaultQuery<String, Word<String>> test;
-            if (testLasso != null) test = eo.findCounterExample(testLasso, inputs);
-            else test = null;
-
-            if (test != null && result == null) {
-                fixedFalseNegatives++;
-                LOGGER.info(
-                        String.format("possibly false: #%d, %s (%d times, fixed)", propertyNumber, property.getProperty(), fixedFalseNegatives));
-                LOGGER.logQuery("query: " + test);
+        final String winner = decided.getWinner(propertyNumber);
+        if (winner != null && !winner.equals(learner)) return null;
+
+        final Budget.Phase previous = budget.enterPhase(Budget.PROPERTY);
+        DefaultQuery<String, Word<String>> result = null;
+        try {
+            budget.check();
+            result = property.disprove(hypothesis, inputs);
+
+            {
+                budget.check();
+                mealyModelCheckerLasso.setMinimumUnfolds(3);
+                mealyModelCheckerLasso.setMultiplier(0.0);
+                final MealyLasso testLasso =
+                        mealyModelCheckerLasso.findCounterExample(hypothesis, inputs, property.getProperty());
+                final DefaultQuery<String, Word<String>> test;
+                if (testLasso != null) test = eo.findCounterExample(testLasso, inputs);
+                else test = null;
+
+                if (test != null && result == null) {
+                    fixedFalseNegatives++;
+                    LOGGER.info(
+                            String.format("possibly false: #%d, %s (%d times, fixed)", propertyNumber, property.getProperty(), fixedFalseNegatives));
+                    LOGGER.logQuery("query: " + test);
+                }
             }
-        }
 
-        {
-            mealyModelCheckerLasso.setMinimumUnfolds(3);
-            mealyModelCheckerLasso.setMultiplier(1.0);
-            final MealyLasso testLasso =
-                    mealyModelCheckerLasso.findCounterExample(hypothesis, inputs, property.getProperty());
-            final DefaultQuery<String, Word<String>> test;
-            if (testLasso != null) test = eo.findCounterExample(testLasso, inputs);
-            else test = null;
-
-            if (test != null && result == null) {
-                relativeFalseNegatives++;
-                LOGGER.info(
-                        String.format("possibly false: #%d, %s (%d times, relative)", propertyNumber, property.getProperty(), fixedFalseNegatives));
-                LOGGER.logQuery("query: " + test);
+            {
+                budget.check();
+                mealyModelCheckerLasso.setMinimumUnfolds(3);
+                mealyModelCheckerLasso.setMultiplier(1.0);
+                final MealyLasso testLasso =
+                        mealyModelCheckerLasso.findCounterExample(hypothesis, inputs, property.getProperty());
+                final DefaultQuery<String, Word<String>> test;
+                if (testLasso != null) test = eo.findCounterExample(testLasso, inputs);
+                else test = null;
+
+                if (test != null && result == null) {
+                    relativeFalseNegatives++;
+                    LOGGER.info(
+                            String.format("possibly false: #%d, %s (%d times, relative)", propertyNumber, property.getProperty(), fixedFalseNegatives));
+                    LOGGER.logQuery("query: " + test);
+                }
+            }
+        } catch (RuntimeException re) {
+            final BudgetExhaustedException bee = Budget.findExhaustion(re);
+            if (bee == null) throw re;
+            LOGGER.info(String.format("%s, while checking property #%d", bee.getMessage(), propertyNumber));
+
+            // a property that has been disproved is still reported, before the experiment stops.
+            if (bee.isGlobal()) {
+                if (result != null) decide(hypothesis);
+                throw re;
             }
+        } finally {
+            budget.restorePhase(previous);
         }
 
-        // write the CSV line.
-        if (result != null) {
-            System.out.printf(
-                    "%d,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d%n",
-                    problem,
-                    learner,
-                    propertyNumber,
-                    fixedFalseNegatives,
-                    relativeFalseNegatives,
-                    hypothesis.getStates().size(),
-                    learnSymbolCounterSUL.getStatisticalData().getCount(),
-                    eqSymbolCounterSUL.getStatisticalData().getCount(),
-                    emSymbolCounterSUL.getStatisticalData().getCount(),
-                    iSymbolCounterSUL.getStatisticalData().getCount(),
-                    learnResetCounterSUL.getStatisticalData().getCount(),
-                    eqResetCounterSUL.getStatisticalData().getCount(),
-                    emResetCounterSUL.getStatisticalData().getCount(),
-                    iResetCounterSUL.getStatisticalData().getCount());
-        }
+        if (result != null) decide(hypothesis);
 
         return result;
 
     }
 
+    /**
+     * Marks this (disproved) property as decided, and writes the CSV line if this learner is the first to decide it.
+     *
+     * The symbol and query columns count the queries of this learner only; in a {@link Portfolio} queries answered
+     * by the shared cache are not counted, and neither are the queries of the other learners. The last two columns
+     * count all symbols and resets applied to the SUL so far, by any learner (i.e. the {@link Budget} totals), such
+     * that the costs of a portfolio can be compared with those of a single learner.
+     *
+     * @param hypothesis the hypothesis that disproved this property.
+     */
+    private void decide(MealyMachine hypothesis) {
+        if (!decided.decide(propertyNumber, learner)) return;
+
+        System.out.printf(
+                "%d,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d%n",
+                problem,
+                learner,
+                propertyNumber,
+                fixedFalseNegatives,
+                relativeFalseNegatives,
+                hypothesis.getStates().size(),
+                learnSymbolCounterSUL.getStatisticalData().getCount(),
+                eqSymbolCounterSUL.getStatisticalData().getCount(),
+                emSymbolCounterSUL.getStatisticalData().getCount(),
+                iSymbolCounterSUL.getStatisticalData().getCount(),
+                learnResetCounterSUL.getStatisticalData().getCount(),
+                eqResetCounterSUL.getStatisticalData().getCount(),
+                emResetCounterSUL.getStatisticalData().getCount(),
+                iResetCounterSUL.getStatisticalData().getCount(),
+                budget.getSymbols().get(),
+                budget.getResets().get());
+        System.out.flush();
+    }
+
+    /**
+     * Finds a counterexample for the hypothesis, within the {@link Budget#PROPERTY} phase of the {@link #budget}. A
+     * property that has been decided by another learner can not provide a counterexample.
+     *
+     * @param hypothesis the current hypothesis.
+     * @param inputs the alphabet.
+     * @return the counterexample, or null if none is found within the budget of the phase.
+     *
+     * @throws ModelCheckingException
+     * @throws BudgetExhaustedException when the global budget is exhausted.
+     */
     @Nullable
     @Override
     public DefaultQuery findCounterExample(MealyMachine hypothesis, Collection inputs)
             throws ModelCheckingException {
 
-        return property.findCounterExample(hypothesis, inputs);
+        final String winner = decided.getWinner(propertyNumber);
+        if (winner != null && !winner.equals(learner)) return null;
+
+        final Budget.Phase previous = budget.enterPhase(Budget.PROPERTY);
+        try {
+            budget.check();
+            return property.findCounterExample(hypothesis, inputs);
+        } catch (RuntimeException re) {
+            final BudgetExhaustedException bee = Budget.findExhaustion(re);
+            if (bee == null || bee.isGlobal()) throw re;
+            LOGGER.info(String.format("%s, while finding a counter example for property #%d",
+                    bee.getMessage(), propertyNumber));
+            return null;
+        } finally {
+            budget.restorePhase(previous);
+        }
     }
 
     @Override
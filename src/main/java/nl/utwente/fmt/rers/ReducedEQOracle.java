@@ -0,0 +1,100 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.logging.LearnLogger;
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Word;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Searches for counterexamples over the reduced alphabet of an {@link AlphabetReduction}, instead of over the given
+ * inputs, and then tests whether the inputs that are merged with a representative actually behave as their
+ * representative.
+ *
+ * The hypothesis (of a {@link ReducedMealyLearner}) maps every input to its representative, so a counterexample
+ * that only contains representatives can be found with the reduced alphabet. That is not sufficient: the reduction
+ * is only a sample, and a merged input may behave differently in a state that was not sampled. Therefore, every
+ * merged input is tested in every state of the hypothesis, with the access sequence of the state, the merged input,
+ * and the characterizing set of the state reached. A counterexample from these tests refutes the reduction in the
+ * {@link ReducedMealyLearner}. Merged inputs that behave differently only after more than one input are not found
+ * by these tests, an oracle over the full inputs (e.g. random words) is still needed for those.
+ */
+@ParametersAreNonnullByDefault
+public class ReducedEQOracle implements MealyEquivalenceOracle<String, String> {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(ReducedEQOracle.class);
+
+    private final MealyEquivalenceOracle<String, String> equivalenceOracle;
+
+    private final AlphabetReduction reduction;
+
+    /**
+     * The oracle used to test the merged inputs.
+     */
+    private final MembershipOracle<String, Word<String>> membershipOracle;
+
+    public ReducedEQOracle(MealyEquivalenceOracle<String, String> equivalenceOracle,
+                           AlphabetReduction reduction,
+                           MembershipOracle<String, Word<String>> membershipOracle) {
+        this.equivalenceOracle = equivalenceOracle;
+        this.reduction = reduction;
+        this.membershipOracle = membershipOracle;
+    }
+
+    @Nullable
+    @Override
+    public DefaultQuery<String, Word<String>> findCounterExample(MealyMachine<?, String, ?, String> hypothesis,
+                                                                Collection<? extends String> inputs) {
+        final DefaultQuery<String, Word<String>> ce =
+                equivalenceOracle.findCounterExample(hypothesis, reduction.getReducedInputs());
+        if (ce != null) return ce;
+
+        return testMergedInputs(hypothesis, inputs);
+    }
+
+    /**
+     * Tests every merged input in every state of the hypothesis.
+     */
+    private <S> DefaultQuery<String, Word<String>> testMergedInputs(MealyMachine<S, String, ?, String> hypothesis,
+                                                                   Collection<? extends String> inputs) {
+        final List<String> merged = new ArrayList();
+        for (String input : inputs) {
+            if (!reduction.getRepresentative(input).equals(input)) merged.add(input);
+        }
+        if (merged.isEmpty()) return null;
+
+        final Collection<String> reducedInputs = reduction.getReducedInputs();
+        final Map<S, List<Word<String>>> characterizingSets = new HashMap();
+        final List<DefaultQuery<String, Word<String>>> queries = new ArrayList();
+
+        for (Map.Entry<S, Word<String>> e : HypothesisUtil.accessSequences(hypothesis, reducedInputs).entrySet()) {
+            for (String input : merged) {
+                final S succ = hypothesis.getSuccessor(e.getKey(), input);
+                if (succ == null) continue;
+
+                final List<Word<String>> ws = characterizingSets.computeIfAbsent(
+                        succ, s -> HypothesisUtil.stateCharacterizingSet(hypothesis, reducedInputs, s));
+                final Word<String> ux = e.getValue().append(input);
+                for (Word<String> w : ws) queries.add(new DefaultQuery(ux.concat(w)));
+            }
+        }
+
+        membershipOracle.processQueries(queries);
+        LOGGER.info(String.format("tested %d merged inputs (%d tests)", merged.size(), queries.size()));
+
+        for (DefaultQuery<String, Word<String>> query : queries) {
+            if (!query.getOutput().equals(hypothesis.computeOutput(query.getInput()))) return query;
+        }
+
+        return null;
+    }
+}
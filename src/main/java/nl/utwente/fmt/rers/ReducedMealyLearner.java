@@ -0,0 +1,146 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.algorithm.LearningAlgorithm.MealyLearner;
+import de.learnlib.api.logging.LearnLogger;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.automata.transout.impl.compact.CompactMealy;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A MealyLearner that learns over the reduced alphabet of an {@link AlphabetReduction}.
+ *
+ * The hypothesis is mapped back to the full input alphabet; every input behaves as its representative. Hence,
+ * properties are checked over the full input alphabet. When a counterexample refutes the reduction, the inputs of
+ * the counterexample are split off their classes, and learning is restarted over the new reduced alphabet.
+ *
+ * Such counterexamples contain merged inputs, so they are only found by equivalence oracles that test the full input
+ * alphabet, such as the merged input tests of a {@link ReducedEQOracle}, or random words over the full alphabet.
+ */
+@ParametersAreNonnullByDefault
+public class ReducedMealyLearner implements MealyLearner<String, String> {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(ReducedMealyLearner.class);
+
+    private final AlphabetReduction reduction;
+
+    /**
+     * Instantiates a learner for a given (reduced) alphabet.
+     */
+    private final Function<Alphabet<String>, MealyLearner<String, String>> learnerFactory;
+
+    /**
+     * The oracle used to answer the abstracted counterexamples.
+     */
+    private final MembershipOracle<String, Word<String>> membershipOracle;
+
+    private MealyLearner<String, String> learner;
+
+    /**
+     * The hypothesis of {@link #learner} over the full input alphabet.
+     */
+    private MealyMachine<?, String, ?, String> hypothesis;
+
+    public ReducedMealyLearner(AlphabetReduction reduction,
+                               Function<Alphabet<String>, MealyLearner<String, String>> learnerFactory,
+                               MembershipOracle<String, Word<String>> membershipOracle) {
+        this.reduction = reduction;
+        this.learnerFactory = learnerFactory;
+        this.membershipOracle = membershipOracle;
+        learner = learnerFactory.apply(reduction.getReducedInputs());
+    }
+
+    @Override
+    public void startLearning() {
+        learner.startLearning();
+        hypothesis = null;
+    }
+
+    /**
+     * Refines the hypothesis with a counterexample over the full input alphabet.
+     *
+     * The counterexample is abstracted to the reduced alphabet. When the SUL produces the same output for the
+     * abstracted counterexample, then that is a counterexample for the learner too. Otherwise the reduction is
+     * refuted; the inputs of the counterexample are split off, and learning is restarted.
+     *
+     * @param ceQuery the counterexample.
+     *
+     * @return whether the hypothesis changed.
+     */
+    @Override
+    public boolean refineHypothesis(DefaultQuery<String, Word<String>> ceQuery) {
+        final Word<String> prefix = reduction.abstractWord(ceQuery.getPrefix());
+        final Word<String> suffix = reduction.abstractWord(ceQuery.getSuffix());
+
+        final boolean result;
+        if (prefix.equals(ceQuery.getPrefix()) && suffix.equals(ceQuery.getSuffix())) {
+            result = learner.refineHypothesis(ceQuery);
+        } else {
+            final Word<String> output = membershipOracle.answerQuery(prefix, suffix);
+            if (output.equals(ceQuery.getOutput())) {
+                result = learner.refineHypothesis(new DefaultQuery(prefix, suffix, output));
+            } else {
+                final Set<String> split = new LinkedHashSet();
+                for (String input : ceQuery.getInput()) {
+                    if (!reduction.getRepresentative(input).equals(input)) split.add(input);
+                }
+                LOGGER.info("alphabet reduction refuted by: " + ceQuery);
+                reduction.split(split);
+                learner = learnerFactory.apply(reduction.getReducedInputs());
+                learner.startLearning();
+
+                // the counterexample may contain inputs that still need to be split off.
+                refineHypothesis(ceQuery);
+                result = true;
+            }
+        }
+
+        if (result) hypothesis = null;
+
+        return result;
+    }
+
+    /**
+     * Returns the hypothesis over the full input alphabet.
+     *
+     * @return the hypothesis.
+     */
+    @Override
+    public MealyMachine<?, String, ?, String> getHypothesisModel() {
+        if (hypothesis == null) hypothesis = expand(learner.getHypothesisModel());
+        return hypothesis;
+    }
+
+    /**
+     * Copies a hypothesis over the reduced alphabet to a hypothesis over the full input alphabet.
+     */
+    private <S> CompactMealy<String, String> expand(MealyMachine<S, String, ?, String> reduced) {
+        final CompactMealy<String, String> result = new CompactMealy(reduction.getInputs());
+
+        final Map<S, Integer> states = new HashMap();
+        for (S s : reduced.getStates()) {
+            states.put(s, s.equals(reduced.getInitialState()) ? result.addInitialState() : result.addState());
+        }
+
+        for (S s : reduced.getStates()) {
+            for (String input : reduction.getInputs()) {
+                final String representative = reduction.getRepresentative(input);
+                final S succ = reduced.getSuccessor(s, representative);
+                if (succ != null) {
+                    result.addTransition(states.get(s), input, states.get(succ), reduced.getOutput(s, representative));
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package nl.utwente.fmt.rers;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Analyses a trace file written by a {@link Tracer}.
+ *
+ * The queries are aggregated by origin and depth (the length of the query, in buckets of powers of two), and
+ * printed as CSV. Optionally, the symbols are written as folded stacks (origin;depth;kind count), that can be used
+ * to draw a flame graph, where kind is one of:
+ *
+ *  - cache: the symbol is answered by a {@link QueryCache},
+ *  - shortcut: the symbol is answered by the {@link DeadPrefixIndex}, or after a sink, by a {@link ProblemSUL},
+ *  - problem: the symbol is answered by stepping the Problem.
+ */
+public class TraceAnalyzer {
+
+    /**
+     * The aggregated queries of an origin and depth.
+     */
+    static class Aggregate {
+        long queries = 0;
+        long cacheHits = 0;
+        long symbols = 0;
+        long cacheSymbols = 0;
+        long shortcutSymbols = 0;
+        long nanos = 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("java " + TraceAnalyzer.class.getCanonicalName() + " [trace file] [folded stacks file]");
+            System.exit(1);
+        }
+
+        final Map<Integer, String> origins = new HashMap();
+        final Map<Integer, Map<Integer, Aggregate>> aggregates = new TreeMap();
+        final Map<Long, Long> threads = new TreeMap();
+        long dropped = -1;
+        boolean truncated = false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16))) {
+            while (true) {
+                final int type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException eofe) {
+                    break;
+                }
+
+                // a trace file of an experiment that did not finish may end in the middle of a record.
+                try {
+                    if (type == Tracer.ORIGIN) {
+                        final int origin = in.readByte();
+                        origins.put(origin, in.readUTF());
+                    } else if (type == Tracer.EVENT) {
+                        final int origin = in.readByte();
+                        final boolean hit = in.readBoolean();
+                        final int length = in.readInt();
+                        final int shortcut = in.readInt();
+                        in.readLong(); // start
+                        final long duration = in.readLong();
+                        final long thread = in.readLong();
+
+                        final Aggregate a = aggregates.computeIfAbsent(origin, o -> new TreeMap<>()).
+                                computeIfAbsent(depth(length), d -> new Aggregate());
+                        a.queries++;
+                        a.symbols += length;
+                        a.nanos += duration;
+                        if (hit) {
+                            a.cacheHits++;
+                            a.cacheSymbols += length;
+                        } else a.shortcutSymbols += shortcut;
+
+                        threads.merge(thread, 1L, Long::sum);
+                    } else if (type == Tracer.DROPPED) {
+                        dropped = in.readLong();
+                    } else throw new IOException("unknown record type: " + type);
+                } catch (EOFException eofe) {
+                    System.err.println("warning: the trace file is truncated, the last record is ignored");
+                    truncated = true;
+                    break;
+                }
+            }
+        }
+
+        if (dropped < 0 && !truncated) System.err.println("warning: the trace file is incomplete, the tracer was not closed");
+
+        System.out.println("origin,depth,queries,cachehits,symbols,cachesymbols,shortcutsymbols,problemsymbols,millis");
+        for (Map.Entry<Integer, Map<Integer, Aggregate>> o : aggregates.entrySet()) {
+            for (Map.Entry<Integer, Aggregate> d : o.getValue().entrySet()) {
+                final Aggregate a = d.getValue();
+                System.out.printf("%s,%s,%d,%d,%d,%d,%d,%d,%d%n",
+                        origins.get(o.getKey()),
+                        depthName(d.getKey()),
+                        a.queries,
+                        a.cacheHits,
+                        a.symbols,
+                        a.cacheSymbols,
+                        a.shortcutSymbols,
+                        a.symbols - a.cacheSymbols - a.shortcutSymbols,
+                        a.nanos / 1000000);
+            }
+        }
+
+        System.err.println("queries per thread: " + threads);
+        if (dropped > 0) System.err.println("dropped events: " + dropped);
+
+        if (args.length == 2) {
+            try (PrintStream out = new PrintStream(args[1])) {
+                for (Map.Entry<Integer, Map<Integer, Aggregate>> o : aggregates.entrySet()) {
+                    final String origin = origins.get(o.getKey()).replace(' ', '_');
+                    for (Map.Entry<Integer, Aggregate> d : o.getValue().entrySet()) {
+                        final Aggregate a = d.getValue();
+                        final String stack = origin + ";" + depthName(d.getKey()) + ";";
+                        final long problem = a.symbols - a.cacheSymbols - a.shortcutSymbols;
+                        if (a.cacheSymbols > 0) out.println(stack + "cache " + a.cacheSymbols);
+                        if (a.shortcutSymbols > 0) out.println(stack + "shortcut " + a.shortcutSymbols);
+                        if (problem > 0) out.println(stack + "problem " + problem);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the depth bucket of a query length, i.e. the number of bits of the length.
+     */
+    static int depth(int length) {
+        return 32 - Integer.numberOfLeadingZeros(length);
+    }
+
+    /**
+     * Returns the range of lengths of a depth bucket.
+     */
+    static String depthName(int depth) {
+        if (depth == 0) return "length_0";
+        else return String.format("length_%d-%d", 1 << (depth - 1), (1 << depth) - 1);
+    }
+}
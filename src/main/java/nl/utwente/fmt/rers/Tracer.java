@@ -0,0 +1,238 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.logging.LearnLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records query events in a lock-free ring buffer, that is drained asynchronously to a binary trace file.
+ *
+ * Events are recorded with {@link #record(int, boolean, int, int, long, long)} by any thread; when the ring buffer is
+ * full the event is dropped (and counted), such that recording never blocks. The trace file is a sequence of records,
+ * each starting with a type byte:
+ *
+ *  - {@link #ORIGIN}: origin id (byte), origin name (UTF),
+ *  - {@link #EVENT}: origin id (byte), cache hit (boolean), length (int), shortcut symbols (int),
+ *                    start (long, nanoseconds since the tracer was opened), duration (long, nanoseconds),
+ *                    thread id (long),
+ *  - {@link #DROPPED}: the number of dropped events (long), this is the last record.
+ *
+ * The trace file can be analysed with {@link TraceAnalyzer}.
+ */
+public class Tracer implements AutoCloseable {
+
+    public static final LearnLogger LOGGER = LearnLogger.getLogger(Tracer.class);
+
+    public static final byte ORIGIN = 0;
+
+    public static final byte EVENT = 1;
+
+    public static final byte DROPPED = 2;
+
+    private final DataOutputStream out;
+
+    private final long epoch = System.nanoTime();
+
+    private final int capacity;
+
+    /**
+     * The fields of the events in the ring buffer.
+     */
+    private final byte[] origins;
+    private final boolean[] hits;
+    private final int[] lengths;
+    private final int[] shortcuts;
+    private final long[] starts;
+    private final long[] durations;
+    private final long[] threads;
+
+    /**
+     * The sequence number of the event in each slot, once the event is completely written.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * The sequence number of the next event to record.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The sequence number of the next event to drain.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Map<String, Integer> originIds = new ConcurrentHashMap();
+
+    /**
+     * Origins that are registered, but not yet written.
+     */
+    private final Queue<String> newOrigins = new ConcurrentLinkedQueue();
+
+    private final Thread drainer;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Opens a new Tracer.
+     *
+     * @param fileName the trace file.
+     * @param capacity the number of events in the ring buffer.
+     *
+     * @throws IOException when the trace file can not be opened.
+     */
+    public Tracer(String fileName, int capacity) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+        this.capacity = capacity;
+
+        origins = new byte[capacity];
+        hits = new boolean[capacity];
+        lengths = new int[capacity];
+        shortcuts = new int[capacity];
+        starts = new long[capacity];
+        durations = new long[capacity];
+        threads = new long[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) published.set(i, -1);
+
+        drainer = new Thread(this::drainLoop, "tracer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Returns the id of an origin (e.g. an oracle), registering the origin if necessary. This is not meant to be
+     * called on a hot path.
+     *
+     * @param name the name of the origin.
+     *
+     * @return the id.
+     */
+    public synchronized int origin(String name) {
+        Integer id = originIds.get(name);
+        if (id == null) {
+            id = originIds.size();
+            if (id > Byte.MAX_VALUE) throw new IllegalStateException("too many origins");
+            originIds.put(name, id);
+            newOrigins.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the current time, in nanoseconds since the tracer was opened.
+     *
+     * @return the time.
+     */
+    public long now() {
+        return System.nanoTime() - epoch;
+    }
+
+    /**
+     * Records an event. This never blocks; when the ring buffer is full the event is dropped.
+     *
+     * @param origin the id of the origin, see {@link #origin(String)}.
+     * @param hit whether the query is answered by a cache.
+     * @param length the number of symbols of the query.
+     * @param shortcut the number of symbols that are answered without stepping the Problem.
+     * @param start the start of the query, see {@link #now()}.
+     * @param duration the duration of the query in nanoseconds.
+     */
+    public void record(int origin, boolean hit, int length, int shortcut, long start, long duration) {
+        long seq;
+        do {
+            seq = head.get();
+            if (seq - tail.get() >= capacity) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!head.compareAndSet(seq, seq + 1));
+
+        final int slot = (int) (seq % capacity);
+        origins[slot] = (byte) origin;
+        hits[slot] = hit;
+        lengths[slot] = length;
+        shortcuts[slot] = shortcut;
+        starts[slot] = start;
+        durations[slot] = duration;
+        threads[slot] = Thread.currentThread().getId();
+        published.set(slot, seq);
+    }
+
+    private void drainLoop() {
+        try {
+            while (!closed) {
+                if (drain() == 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        } catch (IOException ioe) {
+            LOGGER.info("tracing stopped: " + ioe);
+        }
+    }
+
+    /**
+     * Writes the new origins, and the published events.
+     *
+     * @return the number of events written.
+     *
+     * @throws IOException when the trace file can not be written.
+     */
+    private int drain() throws IOException {
+        for (String name = newOrigins.poll(); name != null; name = newOrigins.poll()) {
+            out.writeByte(ORIGIN);
+            out.writeByte(originIds.get(name));
+            out.writeUTF(name);
+        }
+
+        int result = 0;
+        long seq = tail.get();
+        for (int slot = (int) (seq % capacity); published.get(slot) == seq; slot = (int) (seq % capacity)) {
+            out.writeByte(EVENT);
+            out.writeByte(origins[slot]);
+            out.writeBoolean(hits[slot]);
+            out.writeInt(lengths[slot]);
+            out.writeInt(shortcuts[slot]);
+            out.writeLong(starts[slot]);
+            out.writeLong(durations[slot]);
+            out.writeLong(threads[slot]);
+            seq++;
+            tail.set(seq);
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Stops draining, writes the remaining events and closes the trace file.
+     *
+     * @throws IOException when the trace file can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            drainer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        drain();
+        out.writeByte(DROPPED);
+        out.writeLong(dropped.get());
+        out.close();
+
+        LOGGER.info(String.format("traced %d events, dropped %d events", tail.get(), dropped.get()));
+    }
+}
@@ -0,0 +1,75 @@
+package nl.utwente.fmt.rers;
+
+import de.learnlib.api.ObservableSUL;
+import nl.utwente.fmt.rers.problems.seq.Problem;
+
+/**
+ * Records every query on a {@link ProblemSUL} as an event of a {@link Tracer}.
+ */
+public class TracingSUL implements ObservableSUL<Problem, String, String> {
+
+    private final String origin;
+
+    private final ProblemSUL sul;
+
+    private final Tracer tracer;
+
+    private final int originId;
+
+    private int length;
+
+    private long start;
+
+    /**
+     * Constructs a new TracingSUL.
+     *
+     * @param origin the origin of the queries, e.g. the oracle that uses this SUL.
+     * @param sul the ProblemSUL to trace.
+     * @param tracer the tracer.
+     */
+    public TracingSUL(String origin, ProblemSUL sul, Tracer tracer) {
+        this.origin = origin;
+        this.sul = sul;
+        this.tracer = tracer;
+        originId = tracer.origin(origin);
+    }
+
+    @Override
+    public void pre() {
+        length = 0;
+        start = tracer.now();
+        sul.pre();
+    }
+
+    @Override
+    public void post() {
+        tracer.record(originId, false, length, sul.getShortcutSymbols(), start, tracer.now() - start);
+        sul.post();
+    }
+
+    @Override
+    public String step(String input) {
+        length++;
+        return sul.step(input);
+    }
+
+    @Override
+    public boolean canFork() {
+        return sul.canFork();
+    }
+
+    @Override
+    public ObservableSUL<Problem, String, String> fork() throws UnsupportedOperationException {
+        return new TracingSUL(origin, (ProblemSUL) sul.fork(), tracer);
+    }
+
+    @Override
+    public boolean deepCopies() {
+        return sul.deepCopies();
+    }
+
+    @Override
+    public Problem getState() {
+        return sul.getState();
+    }
+}